@@ -0,0 +1,172 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.views.ListViewColumn;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.jenkinsci.plugins.additionalmetrics.MetricsInstrumentation.Operation;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Abstract base class for additional metric columns.
+ * Provides the build window each column computes its metric from, which defaults to the global one.
+ */
+public abstract class AdditionalMetricColumn extends ListViewColumn {
+
+    private int maxBuilds;
+    private int maxDays;
+
+    /**
+     * Returns the maximum number of most recent builds this column computes its metric from.
+     *
+     * @return the number of builds, or 0 to use the global default
+     */
+    public int getMaxBuilds() {
+        return maxBuilds;
+    }
+
+    @DataBoundSetter
+    public void setMaxBuilds(int maxBuilds) {
+        this.maxBuilds = Math.max(0, maxBuilds);
+    }
+
+    /**
+     * Returns the maximum age of the builds this column computes its metric from.
+     *
+     * @return the age in days, or 0 to use the global default
+     */
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    @DataBoundSetter
+    public void setMaxDays(int maxDays) {
+        this.maxDays = Math.max(0, maxDays);
+    }
+
+    /**
+     * Whether this column renders a placeholder, filled in once the page is loaded, see
+     * {@link AdditionalMetricsConfiguration#isProgressiveRendering()}.
+     *
+     * @return true to render a placeholder
+     */
+    public boolean isProgressiveRendering() {
+        return AdditionalMetricsConfiguration.get().isProgressiveRendering();
+    }
+
+    BuildWindow getBuildWindow() {
+        return new BuildWindow(maxBuilds, maxDays).orElse(AdditionalMetricsConfiguration.get().getBuildWindow());
+    }
+
+    /**
+     * Returns whether this column displays checkout durations, which are costlier to compute.
+     */
+    boolean needsCheckout() {
+        return false;
+    }
+
+    AggregatedMetrics metricsOf(Job<?, ?> job) {
+        return MetricsInstrumentation.get().measure(Operation.COLUMN, () -> metricsOf(job, getBuildWindow(), false));
+    }
+
+    AggregatedMetrics metricsWithCheckoutOf(Job<?, ?> job) {
+        return MetricsInstrumentation.get().measure(Operation.COLUMN, () -> metricsOf(job, getBuildWindow(), true));
+    }
+
+    Rollup rollupOf(Item item) {
+        BuildWindow window = getBuildWindow();
+        return MetricsInstrumentation.get().measure(Operation.COLUMN, () -> {
+            return Rollup.of(Rollup.jobsOf(List.of(item)), job -> metricsOf(job, window, false));
+        });
+    }
+
+    /**
+     * Returns the note marking the value this column displays for an item as partial, its computation having exceeded
+     * the budget, see {@link AdditionalMetricsConfiguration#getRunBudget()}, or the checkout durations it is computed
+     * from being partial, see {@link AdditionalMetricsConfiguration#getCheckoutScanBudget()}.
+     *
+     * @param item the item
+     * @return the note, or null if the value is computed entirely from all the builds within the build window
+     */
+    public String getPartialNote(Item item) {
+        BuildWindow window = getBuildWindow();
+        int runs;
+        if (item instanceof Job<?, ?> job) {
+            AggregatedMetrics metrics = metricsOf(job, window, needsCheckout());
+            if (!metrics.isPartial()) {
+                if (needsCheckout() && metrics.partialCheckouts() > 0) {
+                    return Messages.AdditionalMetricColumn_PartialCheckout(metrics.partialCheckouts());
+                }
+                return null;
+            }
+            runs = metrics.completedRuns();
+        } else {
+            // rollups of the jobs of a folder, merged from the metrics shared with the value
+            Rollup rollup = Rollup.of(Rollup.jobsOf(List.of(item)), job -> metricsOf(job, window, false));
+            if (!rollup.isPartial()) {
+                return null;
+            }
+            runs = rollup.completedRuns();
+        }
+        return Messages.AdditionalMetricColumn_Partial(runs);
+    }
+
+    /**
+     * Returns whether the value this column displays for an item is not known yet, its metrics being computed in the
+     * background for the first time, see {@link AdditionalMetricsConfiguration#isBackgroundComputation()}, rather
+     * than missing for lack of builds.
+     *
+     * @param item the item
+     * @return true if the value is pending
+     */
+    public boolean isPending(Item item) {
+        if (!AdditionalMetricsConfiguration.get().isBackgroundComputation()) {
+            return false;
+        }
+        BuildWindow window = getBuildWindow();
+        MetricsPrecomputation precomputation = MetricsPrecomputation.get();
+        if (item instanceof Job<?, ?> job) {
+            return precomputation.isPending(job, window, needsCheckout());
+        }
+        return Rollup.jobsOf(List.of(item)).stream().anyMatch(job -> precomputation.isPending(job, window, false));
+    }
+
+    /**
+     * Returns the value this column displays for an item, as returned by its {@link Metric} method.
+     *
+     * @param item the item
+     * @return the value, or null if there is none or if this column does not apply to the item
+     */
+    Object metricOf(Item item) {
+        for (Method method : getClass().getMethods()) {
+            if (method.isAnnotationPresent(Metric.class) && method.getParameterCount() == 1) {
+                if (!method.getParameterTypes()[0].isInstance(item)) {
+                    return null;
+                }
+                try {
+                    return method.invoke(this, item);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static AggregatedMetrics metricsOf(Job<?, ?> job, BuildWindow window, boolean includeCheckout) {
+        // the columns of a view share the metrics of each job
+        return RequestMemo.metricsOf(job, window, includeCheckout, () -> {
+            if (AdditionalMetricsConfiguration.get().isBackgroundComputation()) {
+                return MetricsPrecomputation.get().lastKnownMetricsOf(job, window, includeCheckout);
+            }
+            return AggregatedMetrics.of(job, window, includeCheckout);
+        });
+    }
+}
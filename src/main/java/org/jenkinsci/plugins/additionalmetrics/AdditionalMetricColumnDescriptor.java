@@ -43,4 +43,23 @@ abstract class AdditionalMetricColumnDescriptor extends ListViewColumnDescriptor
     public String getDisplayName() {
         return displayName;
     }
+
+    /**
+     * Creates a column of this type.
+     *
+     * @param maxBuilds the maximum number of most recent builds, 0 to use the global default
+     * @param maxDays the maximum age of builds in days, 0 to use the global default
+     * @return the column
+     */
+    AdditionalMetricColumn newColumn(int maxBuilds, int maxDays) {
+        AdditionalMetricColumn column;
+        try {
+            column = (AdditionalMetricColumn) clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create " + clazz.getName(), e);
+        }
+        column.setMaxBuilds(maxBuilds);
+        column.setMaxDays(maxDays);
+        return column;
+    }
 }
@@ -0,0 +1,354 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import hudson.util.FormValidation;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Global configuration of the additional metrics, under <i>Manage Jenkins &gt; System</i>.
+ */
+@Extension
+@Symbol("additionalMetrics")
+public class AdditionalMetricsConfiguration extends GlobalConfiguration {
+
+    private int maxBuilds;
+    private int maxDays;
+    private int cacheSize = 1000;
+    private int cacheTtlSeconds = 300;
+    private int parallelism = 2;
+    private int parallelThreshold = 100;
+    private int checkoutScanBudget = 100_000;
+    private int runBudget;
+    private int timeBudgetSeconds = 10;
+    private String checkoutStepIds;
+    private boolean exportByDepth;
+    private boolean backgroundComputation;
+    private boolean progressiveRendering;
+    private boolean prometheusByFolder;
+    private String prometheusIncludes;
+    private String prometheusExcludes;
+
+    public AdditionalMetricsConfiguration() {
+        load();
+    }
+
+    public static AdditionalMetricsConfiguration get() {
+        return ExtensionList.lookupSingleton(AdditionalMetricsConfiguration.class);
+    }
+
+    /**
+     * Returns the default maximum number of most recent builds metrics are computed from.
+     *
+     * @return the number of builds, or 0 for no limit
+     */
+    public int getMaxBuilds() {
+        return maxBuilds;
+    }
+
+    @DataBoundSetter
+    public void setMaxBuilds(int maxBuilds) {
+        this.maxBuilds = Math.max(0, maxBuilds);
+        save();
+    }
+
+    /**
+     * Returns the default maximum age of the builds metrics are computed from.
+     *
+     * @return the age in days, or 0 for no limit
+     */
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    @DataBoundSetter
+    public void setMaxDays(int maxDays) {
+        this.maxDays = Math.max(0, maxDays);
+        save();
+    }
+
+    /**
+     * Returns the maximum number of entries of the {@link MetricsCache}.
+     *
+     * @return the number of entries, or 0 to disable caching
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    @DataBoundSetter
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = Math.max(0, cacheSize);
+        MetricsCache.get().clear();
+        save();
+    }
+
+    /**
+     * Returns the time after which entries of the {@link MetricsCache} expire.
+     *
+     * @return the time in seconds, or 0 for entries to only expire on invalidation
+     */
+    public int getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    @DataBoundSetter
+    public void setCacheTtlSeconds(int cacheTtlSeconds) {
+        this.cacheTtlSeconds = Math.max(0, cacheTtlSeconds);
+        save();
+    }
+
+    /**
+     * Returns the number of threads of the {@link MetricsExecutor}, in addition to the requesting thread.
+     *
+     * @return the number of threads, or 0 to compute metrics sequentially
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @DataBoundSetter
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(0, parallelism);
+        save();
+    }
+
+    /**
+     * Returns the minimum number of builds from which metrics are computed in parallel.
+     *
+     * @return the number of builds
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @DataBoundSetter
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = Math.max(0, parallelThreshold);
+        save();
+    }
+
+    /**
+     * Returns the maximum number of flow nodes scanned to compute the checkout duration of a pipeline build.
+     * Checkout durations of builds with larger flow graphs are partial, and not remembered.
+     *
+     * @return the number of nodes, or 0 for no limit
+     */
+    public int getCheckoutScanBudget() {
+        return checkoutScanBudget;
+    }
+
+    @DataBoundSetter
+    public void setCheckoutScanBudget(int checkoutScanBudget) {
+        this.checkoutScanBudget = Math.max(0, checkoutScanBudget);
+        save();
+    }
+
+    /**
+     * Returns the maximum number of completed builds of a job read to compute its metrics.
+     * Metrics of jobs with more builds are partial, computed from the most recent ones only.
+     *
+     * @return the number of builds, or 0 for no limit
+     */
+    public int getRunBudget() {
+        return runBudget;
+    }
+
+    @DataBoundSetter
+    public void setRunBudget(int runBudget) {
+        this.runBudget = Math.max(0, runBudget);
+        save();
+    }
+
+    /**
+     * Returns the maximum time spent reading the builds of a job to compute its metrics.
+     * Metrics of jobs whose builds take longer to read are partial, computed from the most recent ones only.
+     *
+     * @return the time in seconds, or 0 for no limit
+     */
+    public int getTimeBudgetSeconds() {
+        return timeBudgetSeconds;
+    }
+
+    @DataBoundSetter
+    public void setTimeBudgetSeconds(int timeBudgetSeconds) {
+        this.timeBudgetSeconds = Math.max(0, timeBudgetSeconds);
+        save();
+    }
+
+    /**
+     * Returns the descriptor IDs of the Pipeline steps timed as checkouts, in addition to the SCM steps.
+     *
+     * @return the IDs, separated by commas or whitespace, or null if none
+     */
+    public String getCheckoutStepIds() {
+        return checkoutStepIds;
+    }
+
+    @DataBoundSetter
+    public void setCheckoutStepIds(String checkoutStepIds) {
+        String fixed = Util.fixEmptyAndTrim(checkoutStepIds);
+        // checkout durations remembered by the builds are kept, the cached partial ones are scanned again
+        if (!Objects.equals(fixed, this.checkoutStepIds)) {
+            MetricsCache.get().clear();
+        }
+        this.checkoutStepIds = fixed;
+        save();
+    }
+
+    Set<String> getCheckoutStepIdSet() {
+        if (checkoutStepIds == null) {
+            return Set.of();
+        }
+        return Arrays.stream(checkoutStepIds.split("[,\\s]+"))
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Whether job metrics are exported by the REST API according to the {@code depth} parameter, as they used to,
+     * rather than only when explicitly requested with the {@code tree} parameter.
+     *
+     * @return true to export job metrics by depth
+     */
+    public boolean isExportByDepth() {
+        return exportByDepth;
+    }
+
+    @DataBoundSetter
+    public void setExportByDepth(boolean exportByDepth) {
+        this.exportByDepth = exportByDepth;
+        save();
+    }
+
+    /**
+     * Whether columns display the last known metrics of jobs, computed in the background by
+     * {@link MetricsPrecomputation}, rather than computing them while rendering views.
+     *
+     * @return true to compute metrics in the background
+     */
+    public boolean isBackgroundComputation() {
+        return backgroundComputation;
+    }
+
+    @DataBoundSetter
+    public void setBackgroundComputation(boolean backgroundComputation) {
+        this.backgroundComputation = backgroundComputation;
+        save();
+    }
+
+    /**
+     * Whether columns render placeholders, filled in with a single request once the page is loaded, rather than
+     * delaying the rendering of views until all their metrics are computed.
+     *
+     * @return true to render placeholders
+     */
+    public boolean isProgressiveRendering() {
+        return progressiveRendering;
+    }
+
+    @DataBoundSetter
+    public void setProgressiveRendering(boolean progressiveRendering) {
+        this.progressiveRendering = progressiveRendering;
+        save();
+    }
+
+    /**
+     * Whether the series exposed to Prometheus are labeled by folder, pooling the metrics of the jobs of each folder,
+     * rather than by job.
+     *
+     * @return true to label series by folder
+     */
+    public boolean isPrometheusByFolder() {
+        return prometheusByFolder;
+    }
+
+    @DataBoundSetter
+    public void setPrometheusByFolder(boolean prometheusByFolder) {
+        this.prometheusByFolder = prometheusByFolder;
+        save();
+    }
+
+    /**
+     * Returns the regular expression the full names of the jobs exposed to Prometheus must match.
+     *
+     * @return the regular expression, or null to expose all jobs
+     */
+    public String getPrometheusIncludes() {
+        return prometheusIncludes;
+    }
+
+    @DataBoundSetter
+    public void setPrometheusIncludes(String prometheusIncludes) {
+        this.prometheusIncludes = Util.fixEmptyAndTrim(prometheusIncludes);
+        save();
+    }
+
+    /**
+     * Returns the regular expression the full names of the jobs not exposed to Prometheus match.
+     *
+     * @return the regular expression, or null to exclude no job
+     */
+    public String getPrometheusExcludes() {
+        return prometheusExcludes;
+    }
+
+    @DataBoundSetter
+    public void setPrometheusExcludes(String prometheusExcludes) {
+        this.prometheusExcludes = Util.fixEmptyAndTrim(prometheusExcludes);
+        save();
+    }
+
+    @POST
+    public FormValidation doCheckPrometheusIncludes(@QueryParameter String value) {
+        return checkPattern(value);
+    }
+
+    @POST
+    public FormValidation doCheckPrometheusExcludes(@QueryParameter String value) {
+        return checkPattern(value);
+    }
+
+    private static FormValidation checkPattern(String value) {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        String regex = Util.fixEmptyAndTrim(value);
+        if (regex == null) {
+            return FormValidation.ok();
+        }
+        try {
+            Pattern.compile(regex);
+            return FormValidation.ok();
+        } catch (PatternSyntaxException e) {
+            return FormValidation.error(e.getDescription());
+        }
+    }
+
+    public MetricsCache getCache() {
+        return MetricsCache.get();
+    }
+
+    public MetricsExecutor getExecutor() {
+        return MetricsExecutor.get();
+    }
+
+    BuildWindow getBuildWindow() {
+        return new BuildWindow(maxBuilds, maxDays);
+    }
+
+    ComputationBudget getComputationBudget() {
+        return new ComputationBudget(runBudget, TimeUnit.SECONDS.toMillis(timeBudgetSeconds));
+    }
+}
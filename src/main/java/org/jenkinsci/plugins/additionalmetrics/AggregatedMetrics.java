@@ -0,0 +1,508 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.SUCCESS;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.UNSTABLE;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * All metrics of a job, computed in a single traversal of its runs.
+ * <p>
+ * Runs are expected newest first, as returned by {@code Job#getBuilds()}. Building runs are skipped.
+ * Runs are first read into a {@link RunHistory}, then aggregated from it: long histories are split in chunks
+ * aggregated in parallel on the {@link MetricsExecutor}, then merged.
+ * Once computed, the metrics can be kept up to date as runs complete or get deleted, see {@link JobMetricsStore}.
+ */
+final class AggregatedMetrics {
+
+    private final DurationSummary completedDurations;
+    private final DurationSummary successDurations;
+    private final DurationSummary checkoutDurations;
+
+    private int completedRuns;
+    private int successRuns;
+    private int unstableRuns;
+    // runs whose checkout duration is partial, their flow graph being too large to be scanned entirely
+    private int partialCheckouts;
+
+    private int newestNumber;
+    private int oldestNumber;
+
+    // time rates: each completed run owns the interval up to the start of the next newer one,
+    // the newest run owns the interval up to now
+    private long newestStart;
+    private boolean newestSuccess;
+    private long oldestStart;
+    private long closedSuccessTime;
+    private long closedFailureTime;
+
+    // the budget exceeded while reading the runs, null if all runs were aggregated
+    private ComputationBudget.Limit exceededBudget;
+
+    private AggregatedMetrics(boolean includeCheckout) {
+        this.completedDurations = new DurationSummary();
+        this.successDurations = new DurationSummary();
+        this.checkoutDurations = includeCheckout ? new DurationSummary() : null;
+    }
+
+    private AggregatedMetrics(AggregatedMetrics other) {
+        this.completedDurations = other.completedDurations.copy();
+        this.successDurations = other.successDurations.copy();
+        this.checkoutDurations = other.checkoutDurations != null ? other.checkoutDurations.copy() : null;
+        this.completedRuns = other.completedRuns;
+        this.successRuns = other.successRuns;
+        this.unstableRuns = other.unstableRuns;
+        this.partialCheckouts = other.partialCheckouts;
+        this.newestNumber = other.newestNumber;
+        this.oldestNumber = other.oldestNumber;
+        this.newestStart = other.newestStart;
+        this.newestSuccess = other.newestSuccess;
+        this.oldestStart = other.oldestStart;
+        this.closedSuccessTime = other.closedSuccessTime;
+        this.closedFailureTime = other.closedFailureTime;
+        this.exceededBudget = other.exceededBudget;
+    }
+
+    /**
+     * Aggregates the given runs.
+     *
+     * @param runs the runs to aggregate, newest first
+     * @param includeCheckout whether checkout durations should be computed, which requires walking flow graphs
+     * @return the aggregated metrics
+     */
+    static AggregatedMetrics compute(Iterable<? extends Run> runs, boolean includeCheckout) {
+        return compute(runs, includeCheckout, MetricsExecutor.get());
+    }
+
+    /**
+     * Aggregates the most recent of the given runs, within a budget.
+     *
+     * @param runs the runs to aggregate, newest first
+     * @param includeCheckout whether checkout durations should be computed, which requires walking flow graphs
+     * @param budget the budget
+     * @return the aggregated metrics, partial if the budget was exceeded
+     */
+    static AggregatedMetrics compute(Iterable<? extends Run> runs, boolean includeCheckout, ComputationBudget budget) {
+        return compute(runs, includeCheckout, MetricsExecutor.get(), budget);
+    }
+
+    /**
+     * Aggregates the given runs, splitting long histories in chunks computed on the given executor.
+     */
+    static AggregatedMetrics compute(Iterable<? extends Run> runs, boolean includeCheckout, MetricsExecutor executor) {
+        return compute(runs, includeCheckout, executor, ComputationBudget.UNLIMITED);
+    }
+
+    /**
+     * Aggregates the runs of a job within a build window and a budget, read from the {@link BuildIndex} unless the
+     * job is not indexed yet.
+     *
+     * @param job the job
+     * @param window the runs to consider
+     * @param includeCheckout whether checkout durations should be computed, which requires walking flow graphs
+     * @param budget the budget
+     * @return the aggregated metrics, partial if the budget was exceeded
+     */
+    static AggregatedMetrics compute(
+            Job<?, ?> job, BuildWindow window, boolean includeCheckout, ComputationBudget budget) {
+        MetricsExecutor executor = MetricsExecutor.get();
+        Optional<RunHistory> indexed = BuildIndex.get().historyOf(job, window, includeCheckout, budget);
+        if (indexed.isPresent()) {
+            return compute(indexed.get(), executor);
+        }
+        return compute(window.runsOf(job), includeCheckout, executor, budget);
+    }
+
+    private static AggregatedMetrics compute(
+            Iterable<? extends Run> runs,
+            boolean includeCheckout,
+            MetricsExecutor executor,
+            ComputationBudget budget) {
+        return compute(RunHistory.of(runs, includeCheckout, executor, budget), executor);
+    }
+
+    private static AggregatedMetrics compute(RunHistory history, MetricsExecutor executor) {
+        AggregatedMetrics metrics = aggregate(history, executor);
+        metrics.exceededBudget = history.exceededBudget().orElse(null);
+        return metrics;
+    }
+
+    private static AggregatedMetrics aggregate(RunHistory history, MetricsExecutor executor) {
+        int chunks = executor.chunksFor(history.size());
+        if (chunks <= 1) {
+            return computeSequentially(history, 0, history.size());
+        }
+
+        // contiguous chunks, newest first, merged in order
+        int chunkSize = (history.size() + chunks - 1) / chunks;
+        List<Supplier<AggregatedMetrics>> computations = new ArrayList<>(chunks);
+        for (int from = 0; from < history.size(); from += chunkSize) {
+            int start = from;
+            int end = Math.min(history.size(), from + chunkSize);
+            computations.add(() -> computeSequentially(history, start, end));
+        }
+
+        List<AggregatedMetrics> results = executor.invokeAll(computations);
+        AggregatedMetrics metrics = results.get(0);
+        for (AggregatedMetrics older : results.subList(1, results.size())) {
+            metrics.addOlder(older);
+        }
+        return metrics;
+    }
+
+    private static AggregatedMetrics computeSequentially(RunHistory history, int from, int to) {
+        AggregatedMetrics metrics = new AggregatedMetrics(history.hasCheckoutDurations());
+        for (int i = from; i < to; i++) {
+            metrics.accept(history, i);
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of the runs of a job within a build window, and within the global computation budget.
+     * Metrics of the whole history are read from the {@link JobMetricsStore}, bounded windows are aggregated
+     * and kept in the {@link MetricsCache}.
+     *
+     * @param job the job
+     * @param window the runs to consider
+     * @param includeCheckout whether checkout durations are needed
+     * @return the aggregated metrics
+     */
+    static AggregatedMetrics of(Job<?, ?> job, BuildWindow window, boolean includeCheckout) {
+        if (window.isUnbounded()) {
+            return JobMetricsStore.get().metricsOf(job, includeCheckout);
+        }
+        ComputationBudget budget = AdditionalMetricsConfiguration.get().getComputationBudget();
+        return MetricsCache.get().metricsOf(job, window, includeCheckout, () -> MetricsInstrumentation.get()
+                .measureAggregation(job, () -> compute(job, window, includeCheckout, budget)));
+    }
+
+    /**
+     * Returns the metrics of no runs.
+     */
+    static AggregatedMetrics empty(boolean includeCheckout) {
+        return new AggregatedMetrics(includeCheckout);
+    }
+
+    AggregatedMetrics copy() {
+        return new AggregatedMetrics(this);
+    }
+
+    private void accept(RunHistory history, int index) {
+        boolean success = history.isSuccess(index);
+        long startTime = history.startTime(index);
+
+        addDurations(history, index, false);
+
+        if (completedRuns == 0) {
+            newestNumber = history.number(index);
+            newestStart = startTime;
+            newestSuccess = success;
+        } else {
+            addClosedTime(success, oldestStart - startTime);
+        }
+        oldestNumber = history.number(index);
+        oldestStart = startTime;
+        completedRuns++;
+    }
+
+    /**
+     * Merges the metrics of runs all older than the ones aggregated so far.
+     */
+    private void addOlder(AggregatedMetrics older) {
+        if (older.completedRuns == 0) {
+            return;
+        }
+
+        completedDurations.addAll(older.completedDurations);
+        successDurations.addAll(older.successDurations);
+        if (checkoutDurations != null) {
+            checkoutDurations.addAll(older.checkoutDurations);
+        }
+
+        successRuns += older.successRuns;
+        unstableRuns += older.unstableRuns;
+        partialCheckouts += older.partialCheckouts;
+        closedSuccessTime += older.closedSuccessTime;
+        closedFailureTime += older.closedFailureTime;
+
+        if (completedRuns == 0) {
+            newestNumber = older.newestNumber;
+            newestStart = older.newestStart;
+            newestSuccess = older.newestSuccess;
+        } else {
+            // the newest older run owns the interval up to the oldest run aggregated so far
+            addClosedTime(older.newestSuccess, oldestStart - older.newestStart);
+        }
+        oldestNumber = older.oldestNumber;
+        oldestStart = older.oldestStart;
+        completedRuns += older.completedRuns;
+    }
+
+    /**
+     * Accounts for a run that just completed.
+     *
+     * @return false if the run is not newer than all aggregated runs, in which case the metrics must be recomputed
+     */
+    boolean appendNewest(Run run) {
+        if (!COMPLETED.test(run) || (completedRuns > 0 && run.getNumber() <= newestNumber)) {
+            return false;
+        }
+
+        boolean success = SUCCESS.test(run);
+        long startTime = run.getStartTimeInMillis();
+
+        addDurations(historyOf(run), 0, true);
+
+        if (completedRuns == 0) {
+            oldestNumber = run.getNumber();
+            oldestStart = startTime;
+        } else {
+            addClosedTime(newestSuccess, startTime - newestStart);
+        }
+        newestNumber = run.getNumber();
+        newestStart = startTime;
+        newestSuccess = success;
+        completedRuns++;
+        return true;
+    }
+
+    /**
+     * Accounts for a run being deleted.
+     *
+     * @param run the run
+     * @param neighbours the completed builds indexed around the run, from which the time rates are updated
+     * @return false if the metrics can no longer be derived incrementally and must be recomputed
+     */
+    boolean remove(Run run, BuildIndex.Neighbours neighbours) {
+        int number = run.getNumber();
+        if (completedRuns == 0 || number > newestNumber || number < oldestNumber || !COMPLETED.test(run)) {
+            // never aggregated
+            return true;
+        }
+
+        boolean success = SUCCESS.test(run);
+        long startTime = run.getStartTimeInMillis();
+
+        BuildIndex.Entry newer = aggregated(neighbours.newer());
+        BuildIndex.Entry older = aggregated(neighbours.older());
+
+        if (newer != null) {
+            long newerStart = newer.startTime();
+            addClosedTime(success, startTime - newerStart);
+            if (older != null) {
+                addClosedTime(older.isSuccess(), newerStart - startTime);
+            }
+        } else if (older != null) {
+            addClosedTime(older.isSuccess(), older.startTime() - startTime);
+            newestNumber = older.number();
+            newestStart = older.startTime();
+            newestSuccess = older.isSuccess();
+        }
+
+        if (older == null && newer != null) {
+            oldestNumber = newer.number();
+            oldestStart = newer.startTime();
+        }
+
+        completedRuns--;
+        if (success) {
+            successRuns--;
+        }
+        if (UNSTABLE.test(run)) {
+            unstableRuns--;
+        }
+
+        return removeDurations(historyOf(run), 0);
+    }
+
+    private RunHistory historyOf(Run run) {
+        return RunHistory.of(run, checkoutDurations != null);
+    }
+
+    private BuildIndex.Entry aggregated(BuildIndex.Entry entry) {
+        return entry != null && entry.number() <= newestNumber && entry.number() >= oldestNumber ? entry : null;
+    }
+
+    private void addDurations(RunHistory history, int index, boolean newest) {
+        Job<?, ?> job = history.job();
+        int number = history.number(index);
+        long duration = history.duration(index);
+
+        if (newest) {
+            completedDurations.addNewest(job, number, duration);
+        } else {
+            completedDurations.add(job, number, duration);
+        }
+
+        if (history.isSuccess(index)) {
+            successRuns++;
+            if (newest) {
+                successDurations.addNewest(job, number, duration);
+            } else {
+                successDurations.add(job, number, duration);
+            }
+        }
+
+        if (history.isUnstable(index)) {
+            unstableRuns++;
+        }
+
+        if (checkoutDurations != null) {
+            if (history.isCheckoutPartial(index)) {
+                partialCheckouts++;
+            }
+            long checkoutDuration = history.checkoutDuration(index);
+            if (newest) {
+                checkoutDurations.addNewest(job, number, checkoutDuration);
+            } else {
+                checkoutDurations.add(job, number, checkoutDuration);
+            }
+        }
+    }
+
+    private boolean removeDurations(RunHistory history, int index) {
+        int number = history.number(index);
+        long duration = history.duration(index);
+
+        boolean exact = completedDurations.remove(number, duration);
+        if (history.isSuccess(index)) {
+            exact &= successDurations.remove(number, duration);
+        }
+        if (checkoutDurations != null) {
+            // whether the run was aggregated with a partial checkout duration is not known
+            exact &= partialCheckouts == 0 && !history.isCheckoutPartial(index);
+            exact &= checkoutDurations.remove(number, history.checkoutDuration(index));
+        }
+        return exact;
+    }
+
+    private void addClosedTime(boolean success, long time) {
+        if (success) {
+            closedSuccessTime += time;
+        } else {
+            closedFailureTime += time;
+        }
+    }
+
+    DurationSummary completedDurations() {
+        return completedDurations;
+    }
+
+    DurationSummary successDurations() {
+        return successDurations;
+    }
+
+    /**
+     * Returns the limit of the budget exceeded while reading the runs, in which case the metrics are partial: older
+     * runs were not aggregated.
+     */
+    Optional<ComputationBudget.Limit> exceededBudget() {
+        return Optional.ofNullable(exceededBudget);
+    }
+
+    boolean isPartial() {
+        return exceededBudget != null;
+    }
+
+    boolean hasCheckoutDurations() {
+        return checkoutDurations != null;
+    }
+
+    /**
+     * Returns the number of runs whose checkout duration is partial, their flow graph being too large to be scanned
+     * entirely, see {@link AdditionalMetricsConfiguration#getCheckoutScanBudget()}.
+     */
+    int partialCheckouts() {
+        return partialCheckouts;
+    }
+
+    /**
+     * @throws IllegalStateException if checkout durations were not requested
+     */
+    DurationSummary checkoutDurations() {
+        if (checkoutDurations == null) {
+            throw new IllegalStateException("Checkout durations were not aggregated");
+        }
+        return checkoutDurations;
+    }
+
+    Optional<Rate> successRate() {
+        return rateOf(successRuns);
+    }
+
+    Optional<Rate> failureRate() {
+        return rateOf(completedRuns - successRuns);
+    }
+
+    Optional<Rate> unstableRate() {
+        return rateOf(unstableRuns);
+    }
+
+    Optional<Rate> successTimeRate() {
+        return timeRateOf(true);
+    }
+
+    Optional<Rate> failureTimeRate() {
+        return timeRateOf(false);
+    }
+
+    private Optional<Rate> rateOf(int runs) {
+        if (completedRuns == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Rate((double) runs / completedRuns));
+    }
+
+    int completedRuns() {
+        return completedRuns;
+    }
+
+    int successRuns() {
+        return successRuns;
+    }
+
+    int unstableRuns() {
+        return unstableRuns;
+    }
+
+    /**
+     * Returns the time spent in success, from the start of the oldest run up to the given time.
+     */
+    long successTime(long now) {
+        return accumulatedTime(true, now);
+    }
+
+    /**
+     * Returns the time spent in failure, from the start of the oldest run up to the given time.
+     */
+    long failureTime(long now) {
+        return accumulatedTime(false, now);
+    }
+
+    private long accumulatedTime(boolean success, long now) {
+        if (completedRuns == 0) {
+            return 0;
+        }
+        long accumulatedTime = success ? closedSuccessTime : closedFailureTime;
+        if (newestSuccess == success) {
+            accumulatedTime += now - newestStart;
+        }
+        return accumulatedTime;
+    }
+
+    private Optional<Rate> timeRateOf(boolean success) {
+        if (completedRuns == 0) {
+            return Optional.empty();
+        }
+
+        long endTime = System.currentTimeMillis();
+        return Optional.of(new Rate((double) accumulatedTime(success, endTime) / (endTime - oldestStart)));
+    }
+}
@@ -1,17 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.RUN_CHECKOUT_DURATION;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.averageDuration;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class AvgCheckoutDurationColumn extends ListViewColumn {
+public class AvgCheckoutDurationColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public AvgCheckoutDurationColumn() {
@@ -20,8 +15,12 @@ public class AvgCheckoutDurationColumn extends ListViewColumn {
 
     @Metric
     public Duration getAverageCheckoutDuration(Job<? extends Job, ? extends Run> job) {
-        return averageDuration(job.getBuilds(), COMPLETED, RUN_CHECKOUT_DURATION)
-                .orElse(null);
+        return metricsWithCheckoutOf(job).checkoutDurations().average().orElse(null);
+    }
+
+    @Override
+    boolean needsCheckout() {
+        return true;
     }
 
     @Extension
@@ -1,20 +1,15 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.RUN_DURATION;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.averageDuration;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 /**
  * A Jenkins list view column that displays the average duration of completed builds for a job.
  */
-public class AvgDurationColumn extends ListViewColumn {
+public class AvgDurationColumn extends AdditionalMetricColumn {
 
     /**
      * Creates a new average duration column.
@@ -34,7 +29,7 @@ public class AvgDurationColumn extends ListViewColumn {
      */
     @Metric
     public Duration getAverageDuration(Job<? extends Job, ? extends Run> job) {
-        return averageDuration(job.getBuilds(), COMPLETED, RUN_DURATION).orElse(null);
+        return metricsOf(job).completedDurations().average().orElse(null);
     }
 
     @Extension
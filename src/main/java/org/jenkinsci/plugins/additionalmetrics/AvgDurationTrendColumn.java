@@ -0,0 +1,47 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the average duration of the builds of the last days, and its change since
+ * the days before.
+ */
+public class AvgDurationTrendColumn extends TrendColumn {
+
+    /**
+     * Creates a new average duration trend column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public AvgDurationTrendColumn() {
+        super();
+    }
+
+    /**
+     * Returns the average duration of the builds of the last days, compared to the days before.
+     *
+     * @param job the job to calculate the trend for
+     * @return the trend, or null if no builds completed over the last days
+     */
+    @Metric
+    public DurationTrend getAverageDurationTrend(Job<? extends Job, ? extends Run> job) {
+        Periods periods = periodsOf(job);
+        return periods.current()
+                .averageDuration()
+                .map(current -> new DurationTrend(current, periods.previous().averageDuration().orElse(null)))
+                .orElse(null);
+    }
+
+    @Extension
+    @Symbol("avgDurationTrend")
+    public static class DescriptorImpl extends TrendColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.AvgDurationTrendColumn_DisplayName());
+        }
+    }
+}
@@ -0,0 +1,587 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.RUN_DURATION;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.Timer;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps, for each job, the number, timestamp, start time, duration, result, building flag and checkout duration of
+ * each of its builds, so that metrics are aggregated without loading the builds from disk.
+ * <p>
+ * The index of a job is built in the background the first time it is requested after startup; metrics are computed
+ * from the builds themselves meanwhile. From then on, started, completed and deleted runs are applied as they happen.
+ * Each build takes 38 bytes: about 4 MB for 100,000 builds.
+ * <p>
+ * Completed builds are persisted in a {@link BuildIndexFile} in the directory of the job, so that all its builds are
+ * loaded once only: after a restart, the index is read from the file and reconciled with the build directories of the
+ * job, listed without loading the builds. Only the builds missing from the file are loaded, such as the ones newer
+ * than the last one persisted or interrupted by the restart, and the builds deleted meanwhile are dropped.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class BuildIndex extends RunListener<Run<?, ?>> {
+
+    private static final Logger LOGGER = Logger.getLogger(BuildIndex.class.getName());
+
+    // replaced records and tombstones tolerated in a file, beyond as many as the builds
+    private static final int COMPACTION_SLACK = 100;
+
+    // weak keys: deleted jobs are dropped, renamed jobs keep their state
+    private final Map<Job<?, ?>, State> states = new WeakHashMap<>();
+
+    static BuildIndex get() {
+        return ExtensionList.lookupSingleton(BuildIndex.class);
+    }
+
+    /**
+     * Returns the completed runs of a job within a build window and a budget, read from the index.
+     * Checkout durations not known yet are read from the runs, and indexed.
+     *
+     * @param job the job
+     * @param window the runs to consider
+     * @param includeCheckout whether checkout durations should be read
+     * @param budget the budget, whose run limit applies, reading the index taking no time
+     * @return the runs, newest first, or empty if the job is not indexed yet, in which case it is indexed in the
+     *         background
+     */
+    Optional<RunHistory> historyOf(
+            Job<?, ?> job, BuildWindow window, boolean includeCheckout, ComputationBudget budget) {
+        State state = stateOf(job);
+        RunHistory history;
+        synchronized (state) {
+            if (state.status != Status.INDEXED) {
+                indexInBackground(job, state);
+                return Optional.empty();
+            }
+            history = state.builds.historyOf(job, window, includeCheckout, budget);
+        }
+
+        if (includeCheckout) {
+            int[] read = history.readMissingCheckoutDurations(MetricsExecutor.get());
+            if (read.length > 0) {
+                BuildIndexFile file = BuildIndexFile.of(job);
+                synchronized (state) {
+                    for (int index : read) {
+                        Entry entry = state.builds.withCheckoutDuration(
+                                history.number(index), history.checkoutDuration(index));
+                        if (entry != null) {
+                            append(job, file, state, entry);
+                        }
+                    }
+                }
+            }
+        }
+        return Optional.of(history);
+    }
+
+    /**
+     * Returns the builds of a job scheduled since a given time, read from the index.
+     *
+     * @param job the job
+     * @param oldestTimestamp the earliest time the builds returned were scheduled at
+     * @return the builds, newest first, building ones included, or empty if the job is not indexed yet, in which case
+     *         it is indexed in the background
+     */
+    Optional<List<Entry>> entriesSince(Job<?, ?> job, long oldestTimestamp) {
+        State state = stateOf(job);
+        synchronized (state) {
+            if (state.status != Status.INDEXED) {
+                indexInBackground(job, state);
+                return Optional.empty();
+            }
+            return Optional.of(state.builds.entriesSince(oldestTimestamp));
+        }
+    }
+
+    /**
+     * Returns whether the runs of a job are read from the index, rather than from the runs themselves.
+     */
+    boolean isIndexed(Job<?, ?> job) {
+        State state = stateOf(job);
+        synchronized (state) {
+            return state.status == Status.INDEXED;
+        }
+    }
+
+    private State stateOf(Job<?, ?> job) {
+        synchronized (states) {
+            return states.computeIfAbsent(job, j -> new State());
+        }
+    }
+
+    private static void indexInBackground(Job<?, ?> job, State state) {
+        if (state.status == Status.NOT_INDEXED) {
+            state.status = Status.INDEXING;
+            Timer.get().submit(() -> index(job, state));
+        }
+    }
+
+    private static void index(Job<?, ?> job, State state) {
+        BuildIndexFile file = BuildIndexFile.of(job);
+        Builds builds = new Builds();
+        BuildIndexFile.Contents contents = null;
+        // not read while appended to
+        synchronized (state) {
+            try {
+                contents = file.read(builds::put, builds::remove);
+                state.fileRecords = contents.records();
+            } catch (NoSuchFileException e) {
+                // never indexed
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to read the build index of " + job.getFullName());
+                builds = new Builds();
+            }
+        }
+
+        // the builds newer than the last one persisted, all of them if none was
+        List<Entry> entries = new ArrayList<>();
+        int lastNumber = builds.lastNumber();
+        int dropped = 0;
+        try {
+            for (Run<?, ?> run : job.getBuilds()) {
+                if (run.getNumber() <= lastNumber) {
+                    break;
+                }
+                entries.add(Entry.of(run));
+            }
+
+            // the builds missing from the file, completed while it was rewritten or interrupted by a restart, and the
+            // builds deleted while the plugin was not running
+            if (contents != null) {
+                int[] onDisk = buildNumbersOnDisk(job, lastNumber);
+                dropped = builds.retainAll(onDisk);
+                for (int number : onDisk) {
+                    if (!builds.contains(number)) {
+                        Run<?, ?> run = job.getBuildByNumber(number);
+                        if (run != null) {
+                            entries.add(Entry.of(run));
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to index the builds of " + job.getFullName(), e);
+            synchronized (state) {
+                // indexed again on the next request
+                state.pending.clear();
+                state.status = Status.NOT_INDEXED;
+            }
+            return;
+        }
+
+        synchronized (state) {
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                builds.put(entries.get(i));
+            }
+            // runs started, completed or deleted while indexing, applied again if already indexed
+            for (Consumer<Builds> event : state.pending) {
+                event.accept(builds);
+            }
+            state.pending.clear();
+            state.builds = builds;
+            state.status = Status.INDEXED;
+
+            if (contents == null || !contents.complete() || dropped > 0) {
+                rewrite(job, file, state);
+            } else {
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    if (!entries.get(i).building()) {
+                        append(job, file, state, entries.get(i));
+                    }
+                }
+                if (state.needsCompaction()) {
+                    rewrite(job, file, state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the numbers of the builds of a job from its build directory, without loading them.
+     *
+     * @return the numbers up to the given one, in ascending order
+     */
+    private static int[] buildNumbersOnDisk(Job<?, ?> job, int upTo) {
+        String[] names = job.getBuildDir().list();
+        if (names == null) {
+            return new int[0];
+        }
+        return Arrays.stream(names)
+                .filter(name -> name.matches("[1-9][0-9]{0,8}"))
+                .mapToInt(Integer::parseInt)
+                .filter(number -> number <= upTo)
+                .sorted()
+                .toArray();
+    }
+
+    @Override
+    public void onStarted(Run<?, ?> run, TaskListener listener) {
+        Entry entry = Entry.of(run);
+        update(run, builds -> builds.put(entry), null, null);
+    }
+
+    @Override
+    public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+        // remembered unless partial, usually already by the checkout listener
+        CheckoutDuration.checkoutDurationOf(run);
+        Entry entry = Entry.of(run);
+        update(run, builds -> builds.put(entry), file -> file.append(entry), (store, builds) -> store.completed(run));
+    }
+
+    @Override
+    public void onDeleted(Run<?, ?> run) {
+        int number = run.getNumber();
+        update(
+                run,
+                builds -> builds.remove(number),
+                file -> file.appendTombstone(number),
+                (store, builds) -> store.deleted(run, builds != null ? builds.neighboursOf(number) : null));
+    }
+
+    private void update(
+            Run<?, ?> run,
+            Consumer<Builds> event,
+            FileUpdate fileUpdate,
+            BiConsumer<JobMetricsStore, Builds> storeUpdate) {
+        Job<?, ?> job = run.getParent();
+        State state = stateOf(job);
+        synchronized (state) {
+            switch (state.status) {
+                case INDEXED -> event.accept(state.builds);
+                case INDEXING -> state.pending.add(event);
+                default -> {
+                    // read from the file, or indexed from the runs, once requested
+                }
+            }
+            // while holding the state, so that metrics aggregated from the index see each event exactly once
+            if (storeUpdate != null) {
+                storeUpdate.accept(JobMetricsStore.get(), state.status == Status.INDEXED ? state.builds : null);
+            }
+
+            // persisted even if not indexed, so that the file stays complete
+            BuildIndexFile file = BuildIndexFile.of(job);
+            if (fileUpdate != null && file.exists()) {
+                try {
+                    fileUpdate.apply(file);
+                    state.fileRecords++;
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, e, () -> "Failed to update the build index of " + job.getFullName());
+                }
+                if (state.status == Status.INDEXED && state.needsCompaction()) {
+                    rewrite(job, file, state);
+                }
+            }
+        }
+    }
+
+    private static void append(Job<?, ?> job, BuildIndexFile file, State state, Entry entry) {
+        try {
+            file.append(entry);
+            state.fileRecords++;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Failed to update the build index of " + job.getFullName());
+        }
+    }
+
+    private static void rewrite(Job<?, ?> job, BuildIndexFile file, State state) {
+        List<Entry> entries = state.builds.completedEntries();
+        try {
+            file.rewrite(entries);
+            state.fileRecords = entries.size();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Failed to write the build index of " + job.getFullName());
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileUpdate {
+        void apply(BuildIndexFile file) throws IOException;
+    }
+
+    private enum Status {
+        NOT_INDEXED,
+        INDEXING,
+        INDEXED
+    }
+
+    /**
+     * A build as indexed, read once from its run.
+     *
+     * @param checkoutDuration the checkout duration, or -1 if unknown
+     */
+    record Entry(
+            int number,
+            long timestamp,
+            long startTime,
+            long duration,
+            byte result,
+            boolean building,
+            long checkoutDuration) {
+
+        boolean isSuccess() {
+            return result == Result.SUCCESS.ordinal;
+        }
+
+        static Entry of(Run<?, ?> run) {
+            boolean building = !COMPLETED.test(run);
+            return new Entry(
+                    run.getNumber(),
+                    run.getTimeInMillis(),
+                    run.getStartTimeInMillis(),
+                    building ? 0 : RUN_DURATION.applyAsLong(run),
+                    RunHistory.resultOf(run),
+                    building,
+                    building ? -1 : CheckoutDuration.knownCheckoutDurationOf(run));
+        }
+    }
+
+    /**
+     * The completed builds indexed right before and after a build.
+     *
+     * @param newer the oldest completed build newer than the build, or null
+     * @param older the newest completed build older than the build, or null
+     */
+    record Neighbours(@CheckForNull Entry newer, @CheckForNull Entry older) {}
+
+    private static final class State {
+        private Status status = Status.NOT_INDEXED;
+        private final List<Consumer<Builds>> pending = new ArrayList<>();
+        private Builds builds = new Builds();
+        // replaced records and tombstones included
+        private int fileRecords;
+
+        boolean needsCompaction() {
+            return fileRecords > 2 * builds.completed() + COMPACTION_SLACK;
+        }
+    }
+
+    /**
+     * The builds of a job, oldest first, in parallel arrays.
+     */
+    private static final class Builds {
+        private int size;
+        private int[] numbers = new int[0];
+        private long[] timestamps = new long[0];
+        private long[] startTimes = new long[0];
+        private long[] durations = new long[0];
+        private byte[] results = new byte[0];
+        private boolean[] building = new boolean[0];
+        private long[] checkoutDurations = new long[0];
+
+        /**
+         * Adds a build, or replaces it if already indexed.
+         */
+        void put(Entry entry) {
+            int index = Arrays.binarySearch(numbers, 0, size, entry.number());
+            if (index >= 0) {
+                set(index, entry);
+                return;
+            }
+
+            // usually the newest build
+            int insertion = -index - 1;
+            grow(size + 1);
+            shift(insertion, insertion + 1, size - insertion);
+            size++;
+            set(insertion, entry);
+        }
+
+        void remove(int number) {
+            int index = Arrays.binarySearch(numbers, 0, size, number);
+            if (index >= 0) {
+                shift(index + 1, index, size - index - 1);
+                size--;
+            }
+        }
+
+        boolean contains(int number) {
+            return Arrays.binarySearch(numbers, 0, size, number) >= 0;
+        }
+
+        /**
+         * Removes the builds missing from the given ones.
+         *
+         * @param kept the numbers of the builds to keep, in ascending order
+         * @return the number of builds removed
+         */
+        int retainAll(int[] kept) {
+            int retained = 0;
+            for (int i = 0; i < size; i++) {
+                if (Arrays.binarySearch(kept, numbers[i]) >= 0) {
+                    shift(i, retained, 1);
+                    retained++;
+                }
+            }
+            int removed = size - retained;
+            size = retained;
+            return removed;
+        }
+
+        /**
+         * Sets the checkout duration of a build.
+         *
+         * @return the build updated, or null if deleted meanwhile
+         */
+        Entry withCheckoutDuration(int number, long checkoutDuration) {
+            int index = Arrays.binarySearch(numbers, 0, size, number);
+            if (index < 0) {
+                return null;
+            }
+            checkoutDurations[index] = checkoutDuration;
+            return entryAt(index);
+        }
+
+        Neighbours neighboursOf(int number) {
+            int index = Arrays.binarySearch(numbers, 0, size, number);
+            int newer = index >= 0 ? index + 1 : -index - 1;
+            int older = (index >= 0 ? index : -index - 1) - 1;
+            while (newer < size && building[newer]) {
+                newer++;
+            }
+            while (older >= 0 && building[older]) {
+                older--;
+            }
+            return new Neighbours(newer < size ? entryAt(newer) : null, older >= 0 ? entryAt(older) : null);
+        }
+
+        int lastNumber() {
+            return size == 0 ? 0 : numbers[size - 1];
+        }
+
+        int completed() {
+            int completed = 0;
+            for (int i = 0; i < size; i++) {
+                if (!building[i]) {
+                    completed++;
+                }
+            }
+            return completed;
+        }
+
+        List<Entry> completedEntries() {
+            List<Entry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (!building[i]) {
+                    entries.add(entryAt(i));
+                }
+            }
+            return entries;
+        }
+
+        List<Entry> entriesSince(long oldestTimestamp) {
+            List<Entry> entries = new ArrayList<>();
+            for (int i = size - 1; i >= 0 && timestamps[i] >= oldestTimestamp; i--) {
+                entries.add(entryAt(i));
+            }
+            return entries;
+        }
+
+        RunHistory historyOf(Job<?, ?> job, BuildWindow window, boolean includeCheckout, ComputationBudget budget) {
+            // same bounds as BuildWindow#runsOf, building runs counting as recent builds
+            long oldestTimestamp = window.maxDays() > 0
+                    ? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(window.maxDays())
+                    : Long.MIN_VALUE;
+            int from = size;
+            while (from > 0
+                    && (window.maxBuilds() <= 0 || size - from < window.maxBuilds())
+                    && timestamps[from - 1] >= oldestTimestamp) {
+                from--;
+            }
+
+            int completed = 0;
+            ComputationBudget.Limit exceededBudget = null;
+            for (int i = size - 1; i >= from; i--) {
+                if (!building[i]) {
+                    if (budget.maxRuns() > 0 && completed >= budget.maxRuns()) {
+                        exceededBudget = ComputationBudget.Limit.RUNS;
+                        break;
+                    }
+                    completed++;
+                }
+            }
+
+            RunHistory history = RunHistory.ofSize(job, completed, includeCheckout, exceededBudget);
+            int index = 0;
+            for (int i = size - 1; index < completed; i--) {
+                if (!building[i]) {
+                    history.set(index, numbers[i], startTimes[i], durations[i], results[i]);
+                    if (includeCheckout) {
+                        history.setCheckoutDuration(index, checkoutDurations[i]);
+                    }
+                    index++;
+                }
+            }
+            return history;
+        }
+
+        private Entry entryAt(int index) {
+            return new Entry(
+                    numbers[index],
+                    timestamps[index],
+                    startTimes[index],
+                    durations[index],
+                    results[index],
+                    building[index],
+                    checkoutDurations[index]);
+        }
+
+        private void set(int index, Entry entry) {
+            numbers[index] = entry.number();
+            timestamps[index] = entry.timestamp();
+            startTimes[index] = entry.startTime();
+            durations[index] = entry.duration();
+            results[index] = entry.result();
+            building[index] = entry.building();
+            checkoutDurations[index] = entry.checkoutDuration();
+        }
+
+        private void shift(int from, int to, int length) {
+            System.arraycopy(numbers, from, numbers, to, length);
+            System.arraycopy(timestamps, from, timestamps, to, length);
+            System.arraycopy(startTimes, from, startTimes, to, length);
+            System.arraycopy(durations, from, durations, to, length);
+            System.arraycopy(results, from, results, to, length);
+            System.arraycopy(building, from, building, to, length);
+            System.arraycopy(checkoutDurations, from, checkoutDurations, to, length);
+        }
+
+        private void grow(int capacity) {
+            if (capacity <= numbers.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, numbers.length + (numbers.length >> 1));
+            numbers = Arrays.copyOf(numbers, newCapacity);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            startTimes = Arrays.copyOf(startTimes, newCapacity);
+            durations = Arrays.copyOf(durations, newCapacity);
+            results = Arrays.copyOf(results, newCapacity);
+            building = Arrays.copyOf(building, newCapacity);
+            checkoutDurations = Arrays.copyOf(checkoutDurations, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.util.RunList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the runs of a job that metrics are computed from.
+ * Runs are iterated newest first and the iteration stops as soon as a bound is reached,
+ * so older builds are never loaded from disk.
+ *
+ * @param maxBuilds the maximum number of most recent builds, or 0 for no limit
+ * @param maxDays the maximum age of builds in days, or 0 for no limit
+ */
+record BuildWindow(int maxBuilds, int maxDays) {
+
+    static final BuildWindow UNBOUNDED = new BuildWindow(0, 0);
+
+    boolean isUnbounded() {
+        return maxBuilds <= 0 && maxDays <= 0;
+    }
+
+    /**
+     * Returns a window where each unset bound is replaced by the one of the given window.
+     */
+    BuildWindow orElse(BuildWindow defaults) {
+        return new BuildWindow(
+                maxBuilds > 0 ? maxBuilds : defaults.maxBuilds(), maxDays > 0 ? maxDays : defaults.maxDays());
+    }
+
+    RunList<? extends Run<?, ?>> runsOf(Job<?, ?> job) {
+        RunList<? extends Run<?, ?>> runs = job.getBuilds();
+        if (maxBuilds > 0) {
+            runs = runs.limit(maxBuilds);
+        }
+        if (maxDays > 0) {
+            long now = System.currentTimeMillis();
+            runs = runs.byTimestamp(now - TimeUnit.DAYS.toMillis(maxDays), Long.MAX_VALUE);
+        }
+        return runs;
+    }
+}
@@ -1,55 +1,182 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
 import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.io.IOException;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.additionalmetrics.MetricsInstrumentation.Operation;
 import org.jenkinsci.plugins.workflow.actions.TimingAction;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
 import org.jenkinsci.plugins.workflow.flow.FlowExecution;
-import org.jenkinsci.plugins.workflow.graph.FlowGraphWalker;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graphanalysis.DepthFirstScanner;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
-import org.jenkinsci.plugins.workflow.steps.scm.GenericSCMStep;
+import org.jenkinsci.plugins.workflow.steps.scm.SCMStep;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 class CheckoutDuration {
 
+    private static final Logger LOGGER = Logger.getLogger(CheckoutDuration.class.getName());
+
     private CheckoutDuration() {
         // not instantiatable
     }
 
     static long checkoutDurationOf(Run run) {
+        return checkoutScanOf(run).duration();
+    }
+
+    /**
+     * Returns the checkout duration of a run, along with whether its flow graph was scanned entirely.
+     *
+     * @return the checkout duration, complete if remembered or if the run is not a pipeline run
+     */
+    static CheckoutScan checkoutScanOf(Run run) {
         Jenkins instance = Jenkins.getInstanceOrNull();
         if (instance == null || instance.getPlugin("workflow-job") == null) {
-            return 0;
+            return new CheckoutScan(0, true, 0);
         }
 
         if (!(run instanceof WorkflowRun currentBuild)) {
+            return new CheckoutScan(0, true, 0);
+        }
+
+        return MetricsInstrumentation.get().measure(Operation.CHECKOUT, () -> workflowCheckoutScanOf(currentBuild));
+    }
+
+    /**
+     * Returns the checkout duration of a run if known without walking its flow graph.
+     *
+     * @return the checkout duration, or -1 if unknown
+     */
+    static long knownCheckoutDurationOf(Run<?, ?> run) {
+        Jenkins instance = Jenkins.getInstanceOrNull();
+        if (instance == null || instance.getPlugin("workflow-job") == null || !(run instanceof WorkflowRun)) {
             return 0;
         }
 
+        CheckoutDurationAction cached = run.getAction(CheckoutDurationAction.class);
+        return cached != null ? cached.getCheckoutDuration() : -1;
+    }
+
+    private static CheckoutScan workflowCheckoutScanOf(WorkflowRun currentBuild) {
+        // the flow graph of a completed run never changes
+        CheckoutDurationAction cached = currentBuild.getAction(CheckoutDurationAction.class);
+        if (cached != null) {
+            return new CheckoutScan(cached.getCheckoutDuration(), true, 0);
+        }
+
         FlowExecution execution = currentBuild.getExecution();
         if (execution == null) {
-            return 0;
+            return new CheckoutScan(0, true, 0);
+        }
+
+        AdditionalMetricsConfiguration configuration = AdditionalMetricsConfiguration.get();
+        CheckoutScan scan = countCheckoutDuration(
+                execution, configuration.getCheckoutScanBudget(), configuration.getCheckoutStepIdSet());
+        MetricsInstrumentation instrumentation = MetricsInstrumentation.get();
+        instrumentation.addRuns(Operation.CHECKOUT, 1);
+        instrumentation.addFlowNodes(Operation.CHECKOUT, scan.nodes());
+
+        // a partial duration is not remembered, so that it can be completed with a larger budget
+        if (scan.complete() && !currentBuild.isBuilding()) {
+            // in memory only: saved along with the run by the next save, the run not being saved by readers
+            currentBuild.addOrReplaceAction(new CheckoutDurationAction(scan.duration()));
         }
 
-        return countCheckoutDuration(execution);
+        return scan;
     }
 
-    private static long countCheckoutDuration(FlowExecution execution) {
+    /**
+     * Sums the durations of the checkout steps of a flow graph, in a single scan whatever the step types.
+     * <p>
+     * Checkout steps are the SCM steps, like {@code checkout} or {@code git}, and the steps with the given descriptor
+     * IDs. Steps without a body last until the start of the node following them, steps with a body until their end
+     * node, so that steps within parallel branches are timed within their own branch. Nodes are scanned depth first
+     * from the current heads: once the node budget is exhausted, the scan is incomplete and misses the earliest
+     * checkout steps.
+     *
+     * @param execution the flow graph
+     * @param nodeBudget the maximum number of nodes to scan, or 0 for no limit
+     * @param stepIds the descriptor IDs of additional checkout steps
+     * @return the checkout duration, and whether the whole graph was scanned
+     */
+    static CheckoutScan countCheckoutDuration(FlowExecution execution, int nodeBudget, Set<String> stepIds) {
+        DepthFirstScanner scanner = new DepthFirstScanner();
+        if (!scanner.setup(execution.getCurrentHeads())) {
+            return new CheckoutScan(0, true, 0);
+        }
+
         long totalCheckoutTime = 0;
+        int scannedNodes = 0;
+        for (FlowNode node : scanner) {
+            if (nodeBudget > 0 && scannedNodes >= nodeBudget) {
+                return new CheckoutScan(totalCheckoutTime, false, scannedNodes);
+            }
+            scannedNodes++;
 
-        FlowGraphWalker graphWalker = new FlowGraphWalker(execution);
-        FlowNode nextNode = null;
-        for (FlowNode node : graphWalker) {
-            if (node instanceof StepAtomNode stepNode) {
-                StepDescriptor descriptor = stepNode.getDescriptor();
-                if (descriptor != null && descriptor.clazz.equals(GenericSCMStep.class)) {
-                    totalCheckoutTime += (TimingAction.getStartTime(nextNode) - TimingAction.getStartTime(node));
+            if (node instanceof StepEndNode endNode) {
+                StepStartNode startNode = endNode.getStartNode();
+                if (!startNode.isBody() && isCheckout(startNode.getDescriptor(), stepIds)) {
+                    totalCheckoutTime += TimingAction.getStartTime(endNode) - TimingAction.getStartTime(startNode);
+                }
+            }
+
+            // parents are already loaded by the scanner, and checked by type before looking up their descriptor
+            for (FlowNode parent : node.getParents()) {
+                if (parent instanceof StepAtomNode stepNode && isCheckout(stepNode.getDescriptor(), stepIds)) {
+                    totalCheckoutTime += TimingAction.getStartTime(node) - TimingAction.getStartTime(parent);
                 }
             }
-            nextNode = node;
         }
 
-        return totalCheckoutTime;
+        return new CheckoutScan(totalCheckoutTime, true, scannedNodes);
+    }
+
+    private static boolean isCheckout(StepDescriptor descriptor, Set<String> stepIds) {
+        return descriptor != null
+                && (SCMStep.class.isAssignableFrom(descriptor.clazz) || stepIds.contains(descriptor.getId()));
+    }
+
+    /**
+     * The checkout duration of a flow graph.
+     *
+     * @param duration the checkout duration, in milliseconds
+     * @param complete false if the node budget was exhausted before the whole graph was scanned
+     * @param nodes the number of nodes scanned
+     */
+    record CheckoutScan(long duration, boolean complete, int nodes) {}
+
+    /**
+     * Computes the checkout duration of pipeline runs as soon as they complete, while their flow graph is still in
+     * memory, and saves it with the run: the only place where runs are saved, so that reading metrics never rewrites
+     * the {@code build.xml} of older runs.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class CompletedRunListener extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+            checkoutDurationOf(run);
+            // possibly computed already by another listener
+            if (run.getAction(CheckoutDurationAction.class) != null) {
+                try {
+                    run.save();
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, e, () -> "Failed to save checkout duration of " + run);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,24 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.InvisibleAction;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Remembers the checkout duration of a completed run, so its flow graph is walked only once.
+ * Persisted along with the run in its {@code build.xml} when the run completes, or the next time an older run is
+ * saved.
+ */
+@Restricted(NoExternalUse.class)
+public final class CheckoutDurationAction extends InvisibleAction {
+
+    private final long checkoutDuration;
+
+    CheckoutDurationAction(long checkoutDuration) {
+        this.checkoutDuration = checkoutDuration;
+    }
+
+    long getCheckoutDuration() {
+        return checkoutDuration;
+    }
+}
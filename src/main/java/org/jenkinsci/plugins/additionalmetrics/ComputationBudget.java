@@ -0,0 +1,71 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the cost of aggregating the runs of a job, so that a job with a very long history does not stall the
+ * requests displaying its metrics. Runs are read newest first, and reading stops as soon as the budget is exceeded:
+ * metrics are then partial, computed from the most recent runs only.
+ *
+ * @param maxRuns the maximum number of completed runs read, or 0 for no limit
+ * @param maxMillis the maximum time spent reading runs, in milliseconds, or 0 for no limit
+ */
+record ComputationBudget(int maxRuns, long maxMillis) {
+
+    static final ComputationBudget UNLIMITED = new ComputationBudget(0, 0);
+
+    /**
+     * The limit of a budget that was exceeded.
+     */
+    enum Limit {
+        RUNS("runs"),
+        TIME("time");
+
+        private final String name;
+
+        Limit(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Starts spending this budget.
+     *
+     * @return the spending, to check before reading each run
+     */
+    Spending start() {
+        long deadline = maxMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillis) : 0;
+        return new Spending(deadline);
+    }
+
+    /**
+     * The spending of a budget by a single computation.
+     */
+    final class Spending {
+        private final long deadline;
+
+        private Spending(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Returns the limit exceeded if one more run was read.
+         *
+         * @param runs the number of completed runs read so far
+         * @return the limit exceeded, or null if the run can be read
+         */
+        Limit exceededBy(int runs) {
+            if (maxRuns > 0 && runs >= maxRuns) {
+                return Limit.RUNS;
+            }
+            if (deadline != 0 && System.nanoTime() - deadline >= 0) {
+                return Limit.TIME;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch of positive durations, in the manner of DDSketch.
+ * <p>
+ * Durations are counted in buckets of logarithmically increasing size, so any quantile is estimated within 1% of
+ * its actual value, however many durations were added. Memory only depends on the ratio between the longest and
+ * the shortest duration: under 2 KB from a second to an hour, 4 KB from a millisecond to a week. Unlike t-digest
+ * or KLL, counts can be decremented, so durations of deleted runs can be removed exactly.
+ */
+final class DurationSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // counts[i] is the number of durations in bucket offset + i, which holds (GAMMA^(offset+i-1), GAMMA^(offset+i)]
+    private int[] counts = new int[0];
+    private int offset;
+    private long count;
+
+    DurationSketch copy() {
+        DurationSketch copy = new DurationSketch();
+        copy.counts = counts.clone();
+        copy.offset = offset;
+        copy.count = count;
+        return copy;
+    }
+
+    void add(long duration) {
+        if (duration <= 0) {
+            return;
+        }
+        int bucket = bucketOf(duration);
+        ensureBucket(bucket);
+        counts[bucket - offset]++;
+        count++;
+    }
+
+    /**
+     * Removes a previously added duration.
+     */
+    void remove(long duration) {
+        if (duration <= 0) {
+            return;
+        }
+        int index = bucketOf(duration) - offset;
+        if (index >= 0 && index < counts.length && counts[index] > 0) {
+            counts[index]--;
+            count--;
+        }
+    }
+
+    /**
+     * Adds all the durations of another sketch.
+     */
+    void addAll(DurationSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        ensureBucket(other.offset);
+        ensureBucket(other.offset + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[other.offset + i - offset] += other.counts[i];
+        }
+        count += other.count;
+    }
+
+    long count() {
+        return count;
+    }
+
+    int buckets() {
+        return counts.length;
+    }
+
+    /**
+     * Estimates a quantile, within 1% of the actual duration of nearest rank.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimated duration
+     * @throws IllegalStateException if no duration was added
+     */
+    long quantile(double quantile) {
+        if (count == 0) {
+            throw new IllegalStateException("No durations");
+        }
+
+        // nearest rank
+        long rank = Math.max(0, (long) Math.ceil(quantile * count) - 1);
+        long seen = 0;
+        int index = 0;
+        for (; index < counts.length - 1; index++) {
+            seen += counts[index];
+            if (seen > rank) {
+                break;
+            }
+        }
+        return Math.round(2 * Math.pow(GAMMA, offset + index) / (GAMMA + 1));
+    }
+
+    private static int bucketOf(long duration) {
+        return (int) Math.ceil(Math.log(duration) / LOG_GAMMA);
+    }
+
+    private void ensureBucket(int bucket) {
+        if (counts.length == 0) {
+            counts = new int[1];
+            offset = bucket;
+        } else if (bucket < offset) {
+            int[] grown = new int[counts.length + offset - bucket];
+            System.arraycopy(counts, 0, grown, offset - bucket, counts.length);
+            counts = grown;
+            offset = bucket;
+        } else if (bucket >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, bucket - offset + 1);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import java.util.Optional;
+
+/**
+ * Accumulates count, sum, extremes, variance and percentiles of a series of run durations in a single pass.
+ * Only positive durations are accounted for, runs reporting no duration being left out.
+ * <p>
+ * Extremes are tracked by job and build number, their runs are only loaded when requested: their durations are
+ * available without loading them.
+ */
+final class DurationSummary {
+
+    private final RunningStats stats;
+    private final DurationSketch sketch;
+    // exact, unlike the average of the stats
+    private long total;
+
+    private Job<?, ?> shortestJob;
+    private int shortestNumber;
+    private long shortestDuration;
+    private Job<?, ?> longestJob;
+    private int longestNumber;
+    private long longestDuration;
+
+    DurationSummary() {
+        this(new RunningStats(), new DurationSketch());
+    }
+
+    private DurationSummary(RunningStats stats, DurationSketch sketch) {
+        this.stats = stats;
+        this.sketch = sketch;
+    }
+
+    DurationSummary copy() {
+        DurationSummary copy = new DurationSummary(stats.copy(), sketch.copy());
+        copy.total = total;
+        copy.shortestJob = shortestJob;
+        copy.shortestNumber = shortestNumber;
+        copy.shortestDuration = shortestDuration;
+        copy.longestJob = longestJob;
+        copy.longestNumber = longestNumber;
+        copy.longestDuration = longestDuration;
+        return copy;
+    }
+
+    /**
+     * Adds a run older than all runs added so far.
+     */
+    void add(Job<?, ?> job, int number, long duration) {
+        add(job, number, duration, false);
+    }
+
+    /**
+     * Adds a run newer than all runs added so far.
+     */
+    void addNewest(Job<?, ?> job, int number, long duration) {
+        add(job, number, duration, true);
+    }
+
+    private void add(Job<?, ?> job, int number, long duration, boolean newest) {
+        if (duration <= 0) {
+            return;
+        }
+
+        stats.accept(duration);
+        sketch.add(duration);
+        total += duration;
+
+        // ties are won by the newest run
+        if (shortestJob == null || duration < shortestDuration || (newest && duration == shortestDuration)) {
+            shortestJob = job;
+            shortestNumber = number;
+            shortestDuration = duration;
+        }
+        if (longestJob == null || duration > longestDuration || (newest && duration == longestDuration)) {
+            longestJob = job;
+            longestNumber = number;
+            longestDuration = duration;
+        }
+    }
+
+    /**
+     * Adds the runs of another summary, either all older than the runs added so far or runs of another job.
+     * Ties between extremes are won by the runs added so far.
+     */
+    void addAll(DurationSummary other) {
+        stats.combine(other.stats);
+        sketch.addAll(other.sketch);
+        total += other.total;
+
+        if (other.shortestJob != null && (shortestJob == null || other.shortestDuration < shortestDuration)) {
+            shortestJob = other.shortestJob;
+            shortestNumber = other.shortestNumber;
+            shortestDuration = other.shortestDuration;
+        }
+        if (other.longestJob != null && (longestJob == null || other.longestDuration > longestDuration)) {
+            longestJob = other.longestJob;
+            longestNumber = other.longestNumber;
+            longestDuration = other.longestDuration;
+        }
+    }
+
+    /**
+     * Removes a previously added run.
+     *
+     * @return false if the removed run was one of the extremes, which then cannot be derived anymore
+     */
+    boolean remove(int number, long duration) {
+        if (duration <= 0) {
+            return true;
+        }
+
+        stats.remove(duration);
+        sketch.remove(duration);
+        total -= duration;
+
+        return !(shortestJob != null && shortestNumber == number) && !(longestJob != null && longestNumber == number);
+    }
+
+    int count() {
+        return (int) stats.count();
+    }
+
+    /**
+     * Returns the sum of the durations, in milliseconds.
+     */
+    long total() {
+        return total;
+    }
+
+    Optional<Duration> average() {
+        if (stats.count() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Duration((long) stats.average()));
+    }
+
+    Optional<Duration> standardDeviation() {
+        if (stats.count() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Duration((long) stats.standardDeviation()));
+    }
+
+    /**
+     * Estimates a percentile of the durations, within 1% of the actual duration.
+     *
+     * @param quantile the percentile, between 0 and 1
+     */
+    Optional<Duration> percentile(double quantile) {
+        if (sketch.count() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Duration(sketch.quantile(quantile)));
+    }
+
+    /**
+     * Returns the shortest duration, even if its run was deleted meanwhile.
+     */
+    Optional<Duration> shortestDuration() {
+        return shortestJob != null ? Optional.of(new Duration(shortestDuration)) : Optional.empty();
+    }
+
+    /**
+     * Returns the longest duration, even if its run was deleted meanwhile.
+     */
+    Optional<Duration> longestDuration() {
+        return longestJob != null ? Optional.of(new Duration(longestDuration)) : Optional.empty();
+    }
+
+    Optional<RunWithDuration> shortest() {
+        return runWithDuration(shortestJob, shortestNumber, shortestDuration);
+    }
+
+    Optional<RunWithDuration> longest() {
+        return runWithDuration(longestJob, longestNumber, longestDuration);
+    }
+
+    private static Optional<RunWithDuration> runWithDuration(Job<?, ?> job, int number, long duration) {
+        // empty as well if the run was deleted meanwhile
+        Run run = job != null ? job.getBuildByNumber(number) : null;
+        if (run == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new RunWithDuration(run, new Duration(duration)));
+    }
+}
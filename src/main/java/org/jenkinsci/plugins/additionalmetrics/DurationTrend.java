@@ -0,0 +1,39 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+
+/**
+ * Represents a duration over a recent period, compared to the one of the period before.
+ *
+ * @param current the duration over the recent period
+ * @param previous the duration over the period before, or null if there were no builds
+ */
+public record DurationTrend(Duration current, Duration previous) {
+
+    /**
+     * Returns the relative change of the duration.
+     *
+     * @return the change, e.g. 0.1 for 10% longer, or null if there is no previous duration
+     */
+    public Double getChange() {
+        if (previous == null || previous.getAsLong() == 0) {
+            return null;
+        }
+        return (double) (current.getAsLong() - previous.getAsLong()) / previous.getAsLong();
+    }
+
+    /**
+     * Returns the current duration followed by its relative change, formatted as e.g. "2 min 30 sec (+10.00%)".
+     *
+     * @return the current duration and its change
+     */
+    public String getAsString() {
+        Double change = getChange();
+        if (change == null) {
+            return current.getAsString();
+        }
+        NumberFormat formatter = new DecimalFormat("+0.00;-0.00");
+        return current.getAsString() + " (" + formatter.format(change * 100) + "%)";
+    }
+}
@@ -1,13 +1,8 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.NOT_SUCCESS;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.rateOf;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
@@ -15,7 +10,7 @@ import org.kohsuke.stapler.DataBoundConstructor;
  * A Jenkins list view column that displays the failure rate of completed builds for a job.
  * The failure rate is calculated as the percentage of completed builds that did not succeed.
  */
-public class FailureRateColumn extends ListViewColumn {
+public class FailureRateColumn extends AdditionalMetricColumn {
 
     /**
      * Creates a new failure rate column.
@@ -36,7 +31,7 @@ public class FailureRateColumn extends ListViewColumn {
      */
     @Metric
     public Rate getFailureRate(Job<? extends Job, ? extends Run> job) {
-        return rateOf(job.getBuilds(), COMPLETED, NOT_SUCCESS).orElse(null);
+        return metricsOf(job).failureRate().orElse(null);
     }
 
     @Extension
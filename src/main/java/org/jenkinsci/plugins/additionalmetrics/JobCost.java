@@ -0,0 +1,71 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.concurrent.TimeUnit;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Exposes the cost of aggregating the runs of a job, as measured by the {@link MetricsInstrumentation}, through the
+ * REST API.
+ */
+@ExportedBean
+public final class JobCost {
+
+    private final String fullName;
+    private long aggregations;
+    private long maxNanos;
+    private int runs;
+
+    JobCost(String fullName) {
+        this.fullName = fullName;
+    }
+
+    void record(int runs, long wallNanos) {
+        aggregations++;
+        if (wallNanos >= maxNanos) {
+            maxNanos = wallNanos;
+            this.runs = runs;
+        }
+    }
+
+    JobCost copy() {
+        JobCost copy = new JobCost(fullName);
+        copy.aggregations = aggregations;
+        copy.maxNanos = maxNanos;
+        copy.runs = runs;
+        return copy;
+    }
+
+    long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Exported
+    public String getFullName() {
+        return fullName;
+    }
+
+    /**
+     * Returns the number of times the runs of the job were aggregated.
+     */
+    @Exported
+    public long getAggregations() {
+        return aggregations;
+    }
+
+    /**
+     * Returns the wall time of the slowest aggregation, in milliseconds.
+     */
+    @Exported
+    public long getMaxWallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+    }
+
+    /**
+     * Returns the number of runs of the slowest aggregation.
+     */
+    @Exported
+    public int getRuns() {
+        return runs;
+    }
+}
@@ -0,0 +1,83 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The metrics of a job, by the name they are exposed with through the REST API.
+ */
+enum JobMetric {
+    AVG_CHECKOUT_DURATION("avgCheckoutDuration", true, m -> duration(m.checkoutDurations().average())),
+    AVG_DURATION("avgDuration", false, m -> duration(m.completedDurations().average())),
+    AVG_SUCCESS_DURATION("avgSuccessDuration", false, m -> duration(m.successDurations().average())),
+    MAX_CHECKOUT_DURATION("maxCheckoutDuration", true, m -> duration(m.checkoutDurations().longestDuration())),
+    MAX_DURATION("maxDuration", false, m -> duration(m.completedDurations().longestDuration())),
+    MAX_SUCCESS_DURATION("maxSuccessDuration", false, m -> duration(m.successDurations().longestDuration())),
+    MIN_CHECKOUT_DURATION("minCheckoutDuration", true, m -> duration(m.checkoutDurations().shortestDuration())),
+    MIN_DURATION("minDuration", false, m -> duration(m.completedDurations().shortestDuration())),
+    MIN_SUCCESS_DURATION("minSuccessDuration", false, m -> duration(m.successDurations().shortestDuration())),
+    SUCCESS_RATE("successRate", false, m -> rate(m.successRate())),
+    FAILURE_RATE("failureRate", false, m -> rate(m.failureRate())),
+    SUCCESS_TIME_RATE("successTimeRate", false, m -> rate(m.successTimeRate())),
+    FAILURE_TIME_RATE("failureTimeRate", false, m -> rate(m.failureTimeRate())),
+    STANDARD_DEVIATION_DURATION(
+            "standardDeviationDuration", false, m -> duration(m.completedDurations().standardDeviation())),
+    STANDARD_DEVIATION_SUCCESS_DURATION(
+            "standardDeviationSuccessDuration", false, m -> duration(m.successDurations().standardDeviation())),
+    UNSTABLE_RATE("unstableRate", false, m -> rate(m.unstableRate())),
+    P50_DURATION("p50Duration", false, m -> duration(m.completedDurations().percentile(0.5))),
+    P90_DURATION("p90Duration", false, m -> duration(m.completedDurations().percentile(0.9))),
+    P95_DURATION("p95Duration", false, m -> duration(m.completedDurations().percentile(0.95))),
+    P99_DURATION("p99Duration", false, m -> duration(m.completedDurations().percentile(0.99)));
+
+    private static final Map<String, JobMetric> BY_NAME =
+            Arrays.stream(values()).collect(Collectors.toUnmodifiableMap(JobMetric::getName, Function.identity()));
+
+    private final String name;
+    private final boolean checkout;
+    private final Function<AggregatedMetrics, Number> extractor;
+
+    JobMetric(String name, boolean checkout, Function<AggregatedMetrics, Number> extractor) {
+        this.name = name;
+        this.checkout = checkout;
+        this.extractor = extractor;
+    }
+
+    static Optional<JobMetric> byName(String name) {
+        return Optional.ofNullable(BY_NAME.get(name));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Whether computing this metric requires checkout durations, see {@link AggregatedMetrics#checkoutDurations()}.
+     */
+    boolean needsCheckout() {
+        return checkout;
+    }
+
+    /**
+     * Returns the value of this metric: a duration in milliseconds, or a rate between 0 and 1.
+     *
+     * @param metrics the metrics of a job, including checkout durations if {@link #needsCheckout()}
+     * @return the value, or null if the job has no completed runs to compute it from
+     */
+    @CheckForNull
+    Number valueOf(AggregatedMetrics metrics) {
+        return extractor.apply(metrics);
+    }
+
+    private static Long duration(Optional<Duration> duration) {
+        return duration.map(Duration::getAsLong).orElse(null);
+    }
+
+    private static Double rate(Optional<Rate> rate) {
+        return rate.map(Rate::getAsDouble).orElse(null);
+    }
+}
@@ -4,139 +4,138 @@ import hudson.model.Job;
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
+/**
+ * Exposes all metrics of a job through the REST API.
+ * <p>
+ * Only the requested properties are computed, within the global build window: the job's runs are aggregated once
+ * per request, see {@link RequestMemo}, and checkout durations, which require walking flow graphs, are only
+ * aggregated when one of the checkout properties is requested.
+ */
 @ExportedBean
 public record JobMetrics(Job job) {
 
+    private AggregatedMetrics metrics(boolean includeCheckout) {
+        BuildWindow window = AdditionalMetricsConfiguration.get().getBuildWindow();
+        return RequestMemo.metricsOf(
+                job, window, includeCheckout, () -> AggregatedMetrics.of(job, window, includeCheckout));
+    }
+
     @Exported
     public long getAvgCheckoutDuration() {
-        AvgCheckoutDurationColumn avgCheckoutDurationColumn = new AvgCheckoutDurationColumn();
-        Duration avgCheckoutDuration = avgCheckoutDurationColumn.getAverageCheckoutDuration(job);
-        return durationOrDefaultToZero(avgCheckoutDuration);
+        return durationOrDefaultToZero(JobMetric.AVG_CHECKOUT_DURATION);
     }
 
     @Exported
     public long getAvgDuration() {
-        AvgDurationColumn avgDurationColumn = new AvgDurationColumn();
-        Duration avgDuration = avgDurationColumn.getAverageDuration(job);
-        return durationOrDefaultToZero(avgDuration);
+        return durationOrDefaultToZero(JobMetric.AVG_DURATION);
     }
 
     @Exported
     public long getAvgSuccessDuration() {
-        AvgSuccessDurationColumn avgSuccessDurationColumn = new AvgSuccessDurationColumn();
-        Duration avgSuccessDuration = avgSuccessDurationColumn.getAverageSuccessDuration(job);
-        return durationOrDefaultToZero(avgSuccessDuration);
+        return durationOrDefaultToZero(JobMetric.AVG_SUCCESS_DURATION);
     }
 
     @Exported
     public long getMaxCheckoutDuration() {
-        MaxCheckoutDurationColumn maxCheckoutDurationColumn = new MaxCheckoutDurationColumn();
-        RunWithDuration longestCheckoutRun = maxCheckoutDurationColumn.getLongestCheckoutRun(job);
-        return durationOrDefaultToZero(longestCheckoutRun);
+        return durationOrDefaultToZero(JobMetric.MAX_CHECKOUT_DURATION);
     }
 
     @Exported
     public long getMaxDuration() {
-        MaxDurationColumn maxDurationColumn = new MaxDurationColumn();
-        RunWithDuration longestRun = maxDurationColumn.getLongestRun(job);
-        return durationOrDefaultToZero(longestRun);
+        return durationOrDefaultToZero(JobMetric.MAX_DURATION);
     }
 
     @Exported
     public long getMaxSuccessDuration() {
-        MaxSuccessDurationColumn maxSuccessDurationColumn = new MaxSuccessDurationColumn();
-        RunWithDuration longestSuccessfulRun = maxSuccessDurationColumn.getLongestSuccessfulRun(job);
-        return durationOrDefaultToZero(longestSuccessfulRun);
+        return durationOrDefaultToZero(JobMetric.MAX_SUCCESS_DURATION);
     }
 
     @Exported
     public long getMinCheckoutDuration() {
-        MinCheckoutDurationColumn minCheckoutDurationColumn = new MinCheckoutDurationColumn();
-        RunWithDuration shortestCheckoutRun = minCheckoutDurationColumn.getShortestCheckoutRun(job);
-        return durationOrDefaultToZero(shortestCheckoutRun);
+        return durationOrDefaultToZero(JobMetric.MIN_CHECKOUT_DURATION);
     }
 
     @Exported
     public long getMinDuration() {
-        MinDurationColumn minDurationColumn = new MinDurationColumn();
-        RunWithDuration shortestRun = minDurationColumn.getShortestRun(job);
-        return durationOrDefaultToZero(shortestRun);
+        return durationOrDefaultToZero(JobMetric.MIN_DURATION);
     }
 
     @Exported
     public long getMinSuccessDuration() {
-        MinSuccessDurationColumn minSuccessDurationColumn = new MinSuccessDurationColumn();
-        RunWithDuration shortestSuccessfulRun = minSuccessDurationColumn.getShortestSuccessfulRun(job);
-        return durationOrDefaultToZero(shortestSuccessfulRun);
+        return durationOrDefaultToZero(JobMetric.MIN_SUCCESS_DURATION);
     }
 
     @Exported
     public double getSuccessRate() {
-        SuccessRateColumn successRateColumn = new SuccessRateColumn();
-        Rate successRate = successRateColumn.getSuccessRate(job);
-        return rateOrDefaultToZero(successRate);
+        return rateOrDefaultToZero(JobMetric.SUCCESS_RATE);
     }
 
     @Exported
     public double getFailureRate() {
-        FailureRateColumn failureRateColumn = new FailureRateColumn();
-        Rate failureRate = failureRateColumn.getFailureRate(job);
-        return rateOrDefaultToZero(failureRate);
+        return rateOrDefaultToZero(JobMetric.FAILURE_RATE);
     }
 
     @Exported
     public double getSuccessTimeRate() {
-        SuccessTimeRateColumn successTimeRateColumn = new SuccessTimeRateColumn();
-        Rate successTimeRate = successTimeRateColumn.getSuccessTimeRate(job);
-        return rateOrDefaultToZero(successTimeRate);
+        return rateOrDefaultToZero(JobMetric.SUCCESS_TIME_RATE);
     }
 
     @Exported
     public double getFailureTimeRate() {
-        FailureTimeRateColumn failureTimeRateColumn = new FailureTimeRateColumn();
-        Rate failureTimeRate = failureTimeRateColumn.getFailureTimeRate(job);
-        return rateOrDefaultToZero(failureTimeRate);
+        return rateOrDefaultToZero(JobMetric.FAILURE_TIME_RATE);
     }
 
     @Exported
     public long getStandardDeviationDuration() {
-        StdevDurationColumn stdevDurationColumn = new StdevDurationColumn();
-        Duration standardDeviationDuration = stdevDurationColumn.getStdevDuration(job);
-        return durationOrDefaultToZero(standardDeviationDuration);
+        return durationOrDefaultToZero(JobMetric.STANDARD_DEVIATION_DURATION);
     }
 
     @Exported
     public long getStandardDeviationSuccessDuration() {
-        StdevSuccessDurationColumn stdevSuccessDurationColumn = new StdevSuccessDurationColumn();
-        Duration standardDeviationSuccessDuration = stdevSuccessDurationColumn.getStdevSuccessDuration(job);
-        return durationOrDefaultToZero(standardDeviationSuccessDuration);
+        return durationOrDefaultToZero(JobMetric.STANDARD_DEVIATION_SUCCESS_DURATION);
     }
 
     @Exported
     public double getUnstableRate() {
-        UnstableRateColumn unstableRateColumn = new UnstableRateColumn();
-        Rate unstableRate = unstableRateColumn.getUnstableRate(job);
-        return rateOrDefaultToZero(unstableRate);
+        return rateOrDefaultToZero(JobMetric.UNSTABLE_RATE);
+    }
+
+    @Exported
+    public long getP50Duration() {
+        return durationOrDefaultToZero(JobMetric.P50_DURATION);
+    }
+
+    @Exported
+    public long getP90Duration() {
+        return durationOrDefaultToZero(JobMetric.P90_DURATION);
     }
 
-    private static double rateOrDefaultToZero(Rate rate) {
-        if (rate != null) {
-            return rate.getAsDouble();
-        }
-        return 0.0;
+    @Exported
+    public long getP95Duration() {
+        return durationOrDefaultToZero(JobMetric.P95_DURATION);
+    }
+
+    @Exported
+    public long getP99Duration() {
+        return durationOrDefaultToZero(JobMetric.P99_DURATION);
+    }
+
+    /**
+     * Returns whether the metrics are partial, their computation having exceeded the budget, in which case they are
+     * computed from the most recent builds only.
+     */
+    @Exported
+    public boolean isPartial() {
+        return metrics(false).isPartial();
     }
 
-    private static long durationOrDefaultToZero(Duration duration) {
-        if (duration != null) {
-            return duration.getAsLong();
-        }
-        return 0;
+    private double rateOrDefaultToZero(JobMetric metric) {
+        Number rate = metric.valueOf(metrics(metric.needsCheckout()));
+        return rate != null ? rate.doubleValue() : 0.0;
     }
 
-    private static long durationOrDefaultToZero(RunWithDuration runWithDuration) {
-        if (runWithDuration != null) {
-            return runWithDuration.duration().getAsLong();
-        }
-        return 0;
+    private long durationOrDefaultToZero(JobMetric metric) {
+        Number duration = metric.valueOf(metrics(metric.needsCheckout()));
+        return duration != null ? duration.longValue() : 0L;
     }
 }
@@ -0,0 +1,125 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Job;
+import hudson.model.Run;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the metrics of the whole history of each job up to date as runs complete or get deleted,
+ * so reading them does not require traversing the job's runs.
+ * <p>
+ * Metrics of a job are aggregated the first time they are requested after startup. From then on, completed
+ * and deleted runs, including the ones discarded by log rotation, are applied incrementally. Whenever an event
+ * cannot be applied exactly, such as a run completing before a newer one, the job's metrics are aggregated
+ * again on the next read.
+ * <p>
+ * Events are received from the {@link BuildIndex} once it has applied them, rather than from a listener of
+ * their own, whose order relative to the index would be undefined: metrics aggregated from the index would then
+ * miss a run, or count it twice. Metrics are only kept once the index of the job is built, and if no event was
+ * received while aggregating them.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class JobMetricsStore {
+
+    // weak keys: deleted jobs are dropped, renamed jobs keep their state
+    private final Map<Job<?, ?>, State> states = new WeakHashMap<>();
+
+    static JobMetricsStore get() {
+        return ExtensionList.lookupSingleton(JobMetricsStore.class);
+    }
+
+    /**
+     * Returns the metrics of all the runs of the given job, within the global computation budget.
+     * Checkout durations are only aggregated once requested, and then maintained as well.
+     *
+     * @param job the job
+     * @param includeCheckout whether checkout durations are needed
+     * @return a snapshot of the job's metrics
+     */
+    AggregatedMetrics metricsOf(Job<?, ?> job, boolean includeCheckout) {
+        State state;
+        synchronized (states) {
+            state = states.computeIfAbsent(job, j -> new State());
+        }
+
+        boolean withCheckout;
+        long events;
+        synchronized (state) {
+            boolean hadCheckout = state.metrics != null && state.metrics.hasCheckoutDurations();
+            if (state.metrics != null && !state.stale && (!includeCheckout || hadCheckout)) {
+                return state.metrics.copy();
+            }
+            withCheckout = includeCheckout || hadCheckout;
+            events = state.events;
+        }
+
+        // not aggregated while holding the state, as the index applies its events while holding its own
+        boolean indexed = BuildIndex.get().isIndexed(job);
+        ComputationBudget budget = AdditionalMetricsConfiguration.get().getComputationBudget();
+        AggregatedMetrics metrics = MetricsInstrumentation.get()
+                .measureAggregation(
+                        job, () -> AggregatedMetrics.compute(job, BuildWindow.UNBOUNDED, withCheckout, budget));
+
+        synchronized (state) {
+            // an event received meanwhile may or may not be accounted for
+            if (state.events == events) {
+                state.metrics = metrics;
+                // partial metrics are recomputed by the next request: further runs are loaded by then if limited
+                // by time, and appending runs would exceed the run limit, the oldest ones not being dropped
+                state.stale = !indexed || metrics.isPartial();
+            }
+            return metrics.copy();
+        }
+    }
+
+    /**
+     * Applies a run that completed, once indexed.
+     */
+    void completed(Run<?, ?> run) {
+        update(run, metrics -> metrics.appendNewest(run));
+    }
+
+    /**
+     * Applies a run being deleted, once removed from the index.
+     *
+     * @param neighbours the completed builds indexed around the run, or null if the job is not indexed
+     */
+    void deleted(Run<?, ?> run, @CheckForNull BuildIndex.Neighbours neighbours) {
+        update(run, metrics -> neighbours != null && metrics.remove(run, neighbours));
+    }
+
+    private void update(Run<?, ?> run, Predicate<AggregatedMetrics> event) {
+        State state;
+        synchronized (states) {
+            state = states.get(run.getParent());
+        }
+        if (state == null) {
+            return;
+        }
+
+        synchronized (state) {
+            state.events++;
+            if (state.metrics == null || state.stale) {
+                return;
+            }
+            if (!event.test(state.metrics)) {
+                state.stale = true;
+            }
+        }
+    }
+
+    private static final class State {
+        private AggregatedMetrics metrics;
+        private boolean stale;
+        // events received, applied or not
+        private long events;
+    }
+}
@@ -1,16 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.*;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.findRun;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class MaxCheckoutDurationColumn extends ListViewColumn {
+public class MaxCheckoutDurationColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public MaxCheckoutDurationColumn() {
@@ -19,7 +15,12 @@ public class MaxCheckoutDurationColumn extends ListViewColumn {
 
     @Metric
     public RunWithDuration getLongestCheckoutRun(Job<? extends Job, ? extends Run> job) {
-        return findRun(job.getBuilds(), COMPLETED, RUN_CHECKOUT_DURATION, MAX).orElse(null);
+        return metricsWithCheckoutOf(job).checkoutDurations().longest().orElse(null);
+    }
+
+    @Override
+    boolean needsCheckout() {
+        return true;
     }
 
     @Extension
@@ -1,16 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.*;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.findRun;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class MaxSuccessDurationColumn extends ListViewColumn {
+public class MaxSuccessDurationColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public MaxSuccessDurationColumn() {
@@ -19,7 +15,7 @@ public class MaxSuccessDurationColumn extends ListViewColumn {
 
     @Metric
     public RunWithDuration getLongestSuccessfulRun(Job<? extends Job, ? extends Run> job) {
-        return findRun(job.getBuilds(), SUCCESS, RUN_DURATION, MAX).orElse(null);
+        return metricsOf(job).successDurations().longest().orElse(null);
     }
 
     @Extension
@@ -0,0 +1,43 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the median duration of completed builds for a job.
+ * Unlike the average, it is not skewed by a few exceptionally short or long builds.
+ */
+public class MedianDurationColumn extends AdditionalMetricColumn {
+
+    /**
+     * Creates a new median duration column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public MedianDurationColumn() {
+        super();
+    }
+
+    /**
+     * Estimates and returns the median duration of completed builds for the specified job, within 1%.
+     *
+     * @param job the Jenkins job to calculate the median duration for
+     * @return the median duration of completed builds, or null if no completed builds exist
+     */
+    @Metric
+    public Duration getMedianDuration(Job<? extends Job, ? extends Run> job) {
+        return metricsOf(job).completedDurations().percentile(0.5).orElse(null);
+    }
+
+    @Extension
+    @Symbol("medianDuration")
+    public static class DescriptorImpl extends AdditionalMetricColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.MedianDurationColumn_DisplayName());
+        }
+    }
+}
@@ -6,7 +6,11 @@ import hudson.model.Action;
 import hudson.model.Job;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import jenkins.model.TransientActionFactory;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
@@ -46,9 +50,68 @@ public class MetricsActionFactory extends TransientActionFactory<Job> {
             return null;
         }
 
-        @Exported
+        /**
+         * Returns the metrics of the job.
+         * <p>
+         * Over HTTP, they are only exported when named by the {@code tree} parameter, so that API consumers not
+         * interested in them, like the ones using the {@code depth} parameter, do not trigger their computation.
+         * This can be reverted with {@link AdditionalMetricsConfiguration#isExportByDepth()}.
+         *
+         * @return the metrics, or null if not requested
+         */
+        @Exported(skipNull = true)
         public JobMetrics getJobMetrics() {
-            return new JobMetrics(target);
+            return isExported("jobMetrics") ? new JobMetrics(target) : null;
         }
     }
+
+    /**
+     * Whether a property is to be exported by the current request: when not serving a request, when named by its
+     * {@code tree} parameter, or when {@link AdditionalMetricsConfiguration#isExportByDepth()}.
+     */
+    static boolean isExported(String property) {
+        StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null || AdditionalMetricsConfiguration.get().isExportByDepth()) {
+            return true;
+        }
+        String tree = request.getParameter("tree");
+        return tree != null && propertiesOf(tree).contains(property);
+    }
+
+    /**
+     * Returns the names of the properties of a {@code tree} parameter, at any depth, like {@code jobs},
+     * {@code actions} and {@code jobMetrics} for {@code jobs[actions[jobMetrics[*]]]{0,10}}.
+     */
+    static Set<String> propertiesOf(String tree) {
+        Set<String> properties = new HashSet<>();
+        StringBuilder property = new StringBuilder();
+        boolean range = false;
+        for (int i = 0; i < tree.length(); i++) {
+            char c = tree.charAt(i);
+            switch (c) {
+                case '{' -> range = true;
+                case '}' -> range = false;
+                case '[', ']', ',' -> {
+                    if (!range) {
+                        add(properties, property);
+                    }
+                }
+                default -> {
+                    if (!range) {
+                        property.append(c);
+                    }
+                }
+            }
+        }
+        add(properties, property);
+        return properties;
+    }
+
+    private static void add(Set<String> properties, StringBuilder property) {
+        String name = property.toString().trim();
+        if (!name.isEmpty()) {
+            properties.add(name);
+        }
+        property.setLength(0);
+    }
 }
@@ -0,0 +1,197 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Controller-wide cache of the metrics aggregated over bounded build windows.
+ * <p>
+ * Entries are evicted least recently used first once the configured size is reached, expire after the configured
+ * time to live, and are invalidated as soon as a run of their job completes or is deleted, or the job is renamed,
+ * moved or deleted.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class MetricsCache {
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // only for the jobs whose metrics are being computed
+    private final Map<String, Generation> generations = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    static MetricsCache get() {
+        return ExtensionList.lookupSingleton(MetricsCache.class);
+    }
+
+    /**
+     * Returns the cached metrics of a job, computing them if absent or expired.
+     * Metrics including checkout durations are also used for lookups that do not need them.
+     */
+    AggregatedMetrics metricsOf(
+            Job<?, ?> job, BuildWindow window, boolean includeCheckout, Supplier<AggregatedMetrics> computation) {
+        AdditionalMetricsConfiguration configuration = AdditionalMetricsConfiguration.get();
+        int maxSize = configuration.getCacheSize();
+        if (maxSize <= 0) {
+            return computation.get();
+        }
+
+        String fullName = job.getFullName();
+        long now = System.nanoTime();
+        long ttl = TimeUnit.SECONDS.toNanos(configuration.getCacheTtlSeconds());
+
+        synchronized (entries) {
+            Entry entry = lookup(new Key(fullName, window, true), now, ttl);
+            if (entry == null && !includeCheckout) {
+                entry = lookup(new Key(fullName, window, false), now, ttl);
+            }
+            if (entry != null) {
+                hits.increment();
+                // callers may merge into the metrics returned
+                return entry.metrics().copy();
+            }
+        }
+
+        misses.increment();
+        Generation generation;
+        long started;
+        synchronized (entries) {
+            generation = generations.computeIfAbsent(fullName, n -> new Generation());
+            generation.computations++;
+            started = generation.invalidations;
+        }
+
+        // computed outside the lock, concurrent misses on the same key may compute twice
+        AggregatedMetrics metrics = null;
+        try {
+            metrics = computation.get();
+        } finally {
+            synchronized (entries) {
+                if (--generation.computations == 0) {
+                    generations.remove(fullName);
+                }
+                // not stored if invalidated meanwhile, the metrics possibly predating the invalidation
+                if (metrics != null && generation.invalidations == started) {
+                    store(new Key(fullName, window, includeCheckout), new Entry(metrics, now), maxSize);
+                }
+            }
+        }
+        return metrics.copy();
+    }
+
+    private void store(Key key, Entry entry, int maxSize) {
+        entries.put(key, entry);
+        var iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private Entry lookup(Key key, long now, long ttl) {
+        Entry entry = entries.get(key);
+        if (entry != null && ttl > 0 && now - entry.created() > ttl) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    void invalidate(String fullName) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.fullName().equals(fullName));
+            Generation generation = generations.get(fullName);
+            if (generation != null) {
+                generation.invalidations++;
+            }
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+            for (Generation generation : generations.values()) {
+                generation.invalidations++;
+            }
+        }
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private record Key(String fullName, BuildWindow window, boolean includeCheckout) {}
+
+    private record Entry(AggregatedMetrics metrics, long created) {}
+
+    /**
+     * The invalidations of a job while its metrics are being computed.
+     */
+    private static final class Generation {
+        private long invalidations;
+        private int computations;
+    }
+
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+            get().invalidate(run.getParent().getFullName());
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            get().invalidate(run.getParent().getFullName());
+        }
+    }
+
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class ItemListenerImpl extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            get().invalidate(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            get().invalidate(oldFullName);
+        }
+    }
+}
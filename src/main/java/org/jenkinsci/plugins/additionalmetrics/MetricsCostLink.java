@@ -0,0 +1,83 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Api;
+import hudson.model.ManagementLink;
+import hudson.security.Permission;
+import java.io.IOException;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Displays the cost of computing metrics, as measured by the {@link MetricsInstrumentation}, at
+ * {@code /manage/additional-metrics-cost}, and exposes it through the REST API.
+ */
+@Extension
+@ExportedBean
+@Restricted(NoExternalUse.class)
+public class MetricsCostLink extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.MetricsCostLink_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.MetricsCostLink_Description();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "additional-metrics-cost";
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return Jenkins.SYSTEM_READ;
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public Api getApi() {
+        Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+        return new Api(this);
+    }
+
+    /**
+     * Returns the cost of each operation since startup, or the last reset.
+     */
+    @Exported
+    public List<OperationCost> getOperations() {
+        return MetricsInstrumentation.get().operations();
+    }
+
+    /**
+     * Returns the jobs whose metrics were the slowest to aggregate, slowest first.
+     */
+    @Exported
+    public List<JobCost> getSlowestJobs() {
+        return MetricsInstrumentation.get().slowestJobs();
+    }
+
+    @POST
+    public void doReset(StaplerResponse2 rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        MetricsInstrumentation.get().reset();
+        rsp.sendRedirect(".");
+    }
+}
@@ -0,0 +1,45 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import hudson.Extension;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import jenkins.metrics.api.MetricProvider;
+import org.jenkinsci.plugins.additionalmetrics.MetricsInstrumentation.Operation;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Bridges the cost of computing metrics, as measured by the {@link MetricsInstrumentation}, to the metrics plugin,
+ * when installed, as gauges named {@code additional-metrics.<operation>.<counter>}.
+ */
+@Extension(optional = true)
+@Restricted(NoExternalUse.class)
+public class MetricsCostProvider extends MetricProvider {
+
+    private final MetricSet metricSet = () -> {
+        Map<String, Metric> metrics = new HashMap<>();
+        for (Operation operation : Operation.values()) {
+            String prefix = "additional-metrics." + operation.getName() + ".";
+            metrics.put(prefix + "calls", gauge(operation, OperationCost::getCalls));
+            metrics.put(prefix + "wall-millis", gauge(operation, OperationCost::getWallMillis));
+            metrics.put(prefix + "cpu-millis", gauge(operation, OperationCost::getCpuMillis));
+            metrics.put(prefix + "runs", gauge(operation, OperationCost::getRuns));
+            metrics.put(prefix + "flow-nodes", gauge(operation, OperationCost::getFlowNodes));
+            metrics.put(prefix + "builds-loaded", gauge(operation, OperationCost::getBuildsLoaded));
+        }
+        return metrics;
+    };
+
+    @Override
+    public MetricSet getMetricSet() {
+        return metricSet;
+    }
+
+    private static Gauge<Long> gauge(Operation operation, ToLongFunction<OperationCost> value) {
+        return () -> value.applyAsLong(MetricsInstrumentation.get().costOf(operation));
+    }
+}
@@ -0,0 +1,249 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Dedicated, size-limited executor used to compute metrics in parallel, instead of the JVM-wide common pool.
+ * <p>
+ * Callers help with their own tasks rather than only waiting for them, so a saturated or disabled executor
+ * degrades to sequential computation and never blocks.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class MetricsExecutor {
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final IntSupplier parallelism;
+    private final IntSupplier parallelThreshold;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder tasks = new LongAdder();
+    private final LongAdder callerRunTasks = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    public MetricsExecutor() {
+        this(
+                () -> AdditionalMetricsConfiguration.get().getParallelism(),
+                () -> AdditionalMetricsConfiguration.get().getParallelThreshold());
+    }
+
+    /**
+     * Creates an executor independent of the global configuration.
+     *
+     * @param parallelism the number of threads, 0 to compute sequentially
+     * @param parallelThreshold the minimum number of runs to compute in parallel
+     */
+    MetricsExecutor(IntSupplier parallelism, IntSupplier parallelThreshold) {
+        this.parallelism = parallelism;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    static MetricsExecutor get() {
+        return ExtensionList.lookupSingleton(MetricsExecutor.class);
+    }
+
+    /**
+     * Returns in how many chunks a number of runs should be split to be computed in parallel.
+     *
+     * @param runs the number of runs
+     * @return the number of chunks, 1 to compute sequentially
+     */
+    int chunksFor(int runs) {
+        int threads = parallelism.getAsInt();
+        if (threads <= 0 || runs < Math.max(2, parallelThreshold.getAsInt())) {
+            return 1;
+        }
+        // the calling thread computes a chunk as well
+        return Math.min(threads + 1, runs);
+    }
+
+    /**
+     * Runs the given tasks, in parallel when possible.
+     *
+     * @param computations the tasks to run
+     * @return the results of the tasks, in the same order
+     */
+    <T> List<T> invokeAll(List<? extends Supplier<T>> computations) {
+        List<FutureTask<T>> futures = new ArrayList<>(computations.size());
+        for (Supplier<T> computation : computations) {
+            FutureTask<T> future = newTask(computation);
+            futures.add(future);
+            tryExecute(future);
+        }
+
+        // help with the tasks not started yet, last ones first as the executor takes the first ones
+        for (int i = futures.size() - 1; i >= 0; i--) {
+            futures.get(i).run();
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (FutureTask<T> future : futures) {
+            results.add(resultOf(future));
+        }
+        return results;
+    }
+
+    /**
+     * Creates a task running with the authentication, and the {@link RequestMemo}, of the calling thread.
+     */
+    <T> FutureTask<T> newTask(Supplier<T> computation) {
+        tasks.increment();
+        return new FutureTask<>(instrument(computation, Jenkins.getAuthentication2(), RequestMemo.current()));
+    }
+
+    /**
+     * Hands a task over to the executor.
+     *
+     * @return false if parallelism is disabled or the executor is saturated, the caller must then run the task
+     */
+    boolean tryExecute(FutureTask<?> task) {
+        ThreadPoolExecutor pool = pool();
+        if (pool == null) {
+            return false;
+        }
+        try {
+            pool.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the maximum number of tasks that can be computed at the same time, including by the caller.
+     */
+    int getMaxConcurrency() {
+        return Math.max(0, parallelism.getAsInt()) + 1;
+    }
+
+    private <T> Callable<T> instrument(Supplier<T> computation, Authentication authentication, RequestMemo memo) {
+        long submitted = System.nanoTime();
+        Thread caller = Thread.currentThread();
+        return () -> {
+            long started = System.nanoTime();
+            if (Thread.currentThread() == caller) {
+                callerRunTasks.increment();
+            }
+            waitNanos.add(started - submitted);
+            try (ACLContext ignored = ACL.as2(authentication)) {
+                return RequestMemo.supplyWith(memo, computation);
+            } finally {
+                runNanos.add(System.nanoTime() - started);
+            }
+        };
+    }
+
+    private static <T> T resultOf(FutureTask<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing metrics", e);
+        }
+    }
+
+    private synchronized ThreadPoolExecutor pool() {
+        int threads = parallelism.getAsInt();
+        if (threads <= 0) {
+            return null;
+        }
+
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    60,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "AdditionalMetrics"));
+            executor.allowCoreThreadTimeOut(true);
+        } else if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else if (threads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        return executor;
+    }
+
+    /**
+     * Returns the number of tasks waiting for a thread of the executor.
+     */
+    public synchronized int getQueueDepth() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    /**
+     * Returns the number of threads of the executor currently computing metrics.
+     */
+    public synchronized int getActiveThreads() {
+        return executor != null ? executor.getActiveCount() : 0;
+    }
+
+    /**
+     * Returns the number of tasks submitted so far.
+     */
+    public long getTasks() {
+        return tasks.sum();
+    }
+
+    /**
+     * Returns the number of tasks run by the threads that submitted them.
+     */
+    public long getCallerRunTasks() {
+        return callerRunTasks.sum();
+    }
+
+    /**
+     * Returns the average time tasks waited before being run, in milliseconds.
+     */
+    public double getAverageWaitMillis() {
+        return averageMillis(waitNanos);
+    }
+
+    /**
+     * Returns the average time tasks took to run, in milliseconds.
+     */
+    public double getAverageRunMillis() {
+        return averageMillis(runNanos);
+    }
+
+    private double averageMillis(LongAdder nanos) {
+        long count = tasks.sum();
+        return count == 0 ? 0 : nanos.sum() / 1_000_000.0 / count;
+    }
+}
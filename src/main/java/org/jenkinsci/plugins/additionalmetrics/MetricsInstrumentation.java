@@ -0,0 +1,242 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Measures the cost of computing metrics on the controller: calls, wall and CPU time of each {@link Operation},
+ * runs aggregated, flow nodes walked, and builds loaded from disk while computing, along with the jobs whose metrics
+ * were the slowest to aggregate.
+ * <p>
+ * Times are inclusive: the time of a column includes the time of the aggregations and checkout scans it triggered on
+ * the same thread. Builds loaded are attributed to the innermost operation of the thread loading them.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class MetricsInstrumentation {
+
+    static final int SLOWEST_JOBS = 20;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final ThreadLocal<Counters> CURRENT = new ThreadLocal<>();
+
+    private final Map<Operation, Counters> counters = new EnumMap<>(Operation.class);
+
+    // the slowest jobs only, the fastest one being replaced once full
+    private final Map<String, JobCost> slowestJobs = new HashMap<>();
+
+    public MetricsInstrumentation() {
+        for (Operation operation : Operation.values()) {
+            counters.put(operation, new Counters());
+        }
+    }
+
+    static MetricsInstrumentation get() {
+        return ExtensionList.lookupSingleton(MetricsInstrumentation.class);
+    }
+
+    /**
+     * The operations measured.
+     */
+    enum Operation {
+        /**
+         * Obtaining the metrics displayed by a column, see {@link Metric}.
+         */
+        COLUMN("columns"),
+        /**
+         * Aggregating the runs of a job, see {@link #measureAggregation}.
+         */
+        AGGREGATION("aggregations"),
+        /**
+         * Obtaining the checkout duration of a run, see {@link CheckoutDuration#checkoutDurationOf}.
+         */
+        CHECKOUT("checkouts");
+
+        private final String name;
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Runs an operation, measuring its cost.
+     *
+     * @param operation the operation
+     * @param computation the computation
+     * @return the result of the computation
+     */
+    <T> T measure(Operation operation, Supplier<T> computation) {
+        Counters operationCounters = counters.get(operation);
+        Counters outer = CURRENT.get();
+        CURRENT.set(operationCounters);
+        long startCpu = cpuTime();
+        long start = System.nanoTime();
+        try {
+            return computation.get();
+        } finally {
+            operationCounters.calls.increment();
+            operationCounters.wallNanos.add(System.nanoTime() - start);
+            operationCounters.cpuNanos.add(cpuTime() - startCpu);
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    void addRuns(Operation operation, long runs) {
+        counters.get(operation).runs.add(runs);
+    }
+
+    void addFlowNodes(Operation operation, long flowNodes) {
+        counters.get(operation).flowNodes.add(flowNodes);
+    }
+
+    /**
+     * Aggregates the runs of a job, measuring its cost, and recording the job if among the slowest ones.
+     *
+     * @param job the job
+     * @param aggregation aggregates the runs of the job
+     * @return the aggregated metrics
+     */
+    AggregatedMetrics measureAggregation(Job<?, ?> job, Supplier<AggregatedMetrics> aggregation) {
+        long start = System.nanoTime();
+        AggregatedMetrics metrics = measure(Operation.AGGREGATION, aggregation);
+        addRuns(Operation.AGGREGATION, metrics.completedRuns());
+        recordAggregation(job, metrics.completedRuns(), System.nanoTime() - start);
+        return metrics;
+    }
+
+    private void recordAggregation(Job<?, ?> job, int runs, long wallNanos) {
+        String fullName = job.getFullName();
+        synchronized (slowestJobs) {
+            JobCost known = slowestJobs.get(fullName);
+            if (known != null) {
+                known.record(runs, wallNanos);
+                return;
+            }
+            if (slowestJobs.size() >= SLOWEST_JOBS) {
+                JobCost fastest = slowestJobs.values().stream()
+                        .min(Comparator.comparingLong(JobCost::getMaxNanos))
+                        .orElseThrow();
+                if (fastest.getMaxNanos() >= wallNanos) {
+                    return;
+                }
+                slowestJobs.remove(fastest.getFullName());
+            }
+            JobCost cost = new JobCost(fullName);
+            cost.record(runs, wallNanos);
+            slowestJobs.put(fullName, cost);
+        }
+    }
+
+    private void buildLoaded() {
+        Counters current = CURRENT.get();
+        if (current != null) {
+            current.buildsLoaded.increment();
+        }
+    }
+
+    /**
+     * Returns the cost of each operation since startup, or the last reset.
+     */
+    List<OperationCost> operations() {
+        List<OperationCost> result = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            result.add(costOf(operation));
+        }
+        return result;
+    }
+
+    OperationCost costOf(Operation operation) {
+        Counters c = counters.get(operation);
+        return new OperationCost(
+                operation.getName(),
+                c.calls.sum(),
+                c.wallNanos.sum(),
+                c.cpuNanos.sum(),
+                c.runs.sum(),
+                c.flowNodes.sum(),
+                c.buildsLoaded.sum());
+    }
+
+    /**
+     * Returns the jobs whose metrics were the slowest to aggregate, slowest first.
+     */
+    List<JobCost> slowestJobs() {
+        synchronized (slowestJobs) {
+            List<JobCost> result = new ArrayList<>();
+            for (JobCost cost : slowestJobs.values()) {
+                result.add(cost.copy());
+            }
+            result.sort(Comparator.comparingLong(JobCost::getMaxNanos).reversed());
+            return result;
+        }
+    }
+
+    void reset() {
+        for (Counters c : counters.values()) {
+            c.reset();
+        }
+        synchronized (slowestJobs) {
+            slowestJobs.clear();
+        }
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder flowNodes = new LongAdder();
+        private final LongAdder buildsLoaded = new LongAdder();
+
+        void reset() {
+            calls.reset();
+            wallNanos.reset();
+            cpuNanos.reset();
+            runs.reset();
+            flowNodes.reset();
+            buildsLoaded.reset();
+        }
+    }
+
+    /**
+     * Counts the builds loaded from disk while computing metrics.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class LoadedRunListener extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onInitialize(Run<?, ?> run) {
+            MetricsInstrumentation.get().buildLoaded();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ListView;
+import hudson.model.TaskListener;
+import hudson.model.View;
+import hudson.model.ViewGroup;
+import hudson.model.listeners.ItemListener;
+import hudson.views.ListViewColumn;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Computes the metrics displayed by columns in the background, when enabled by
+ * {@link AdditionalMetricsConfiguration#isBackgroundComputation()}, so that views render from the last known metrics
+ * of each job instead of waiting for the slowest one.
+ * <p>
+ * Every minute, the metrics of the jobs of the list views with additional metric columns, and of the jobs displayed
+ * within the last hour, are refreshed: metrics still up to date in the {@link JobMetricsStore} or the
+ * {@link MetricsCache} are only copied, the other ones are computed again. Metrics not known yet are computed as
+ * soon as they are first displayed, and displayed as pending meanwhile. Entries follow their job when it is renamed
+ * or moved, and are dropped when it is deleted.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class MetricsPrecomputation extends AsyncPeriodicWork {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsPrecomputation.class.getName());
+
+    private static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    public MetricsPrecomputation() {
+        super("Additional metrics precomputation");
+    }
+
+    static MetricsPrecomputation get() {
+        return ExtensionList.lookupSingleton(MetricsPrecomputation.class);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return MIN;
+    }
+
+    /**
+     * Returns whether the metrics of a job are being computed for the first time, see {@link #lastKnownMetricsOf}.
+     *
+     * @param job the job
+     * @param window the runs to consider
+     * @param includeCheckout whether checkout durations are needed
+     * @return true if the metrics are not known yet
+     */
+    boolean isPending(Job<?, ?> job, BuildWindow window, boolean includeCheckout) {
+        Key key = new Key(job.getFullName(), window, includeCheckout);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry == null || entry.metrics == null;
+        }
+    }
+
+    /**
+     * Returns the last known metrics of a job, without computing them.
+     *
+     * @param job the job
+     * @param window the runs to consider
+     * @param includeCheckout whether checkout durations are needed
+     * @return the last known metrics, or metrics of no runs if they are not known yet, in which case they are
+     *         computed in the background and {@link #isPending} until then
+     */
+    AggregatedMetrics lastKnownMetricsOf(Job<?, ?> job, BuildWindow window, boolean includeCheckout) {
+        Key key = new Key(job.getFullName(), window, includeCheckout);
+        Entry entry;
+        boolean added = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                added = true;
+            }
+            entry.lastDisplayed = System.currentTimeMillis();
+        }
+
+        if (added) {
+            Entry newEntry = entry;
+            MetricsExecutor executor = MetricsExecutor.get();
+            FutureTask<Void> task = executor.newTask(() -> {
+                refresh(job, key, newEntry);
+                return null;
+            });
+            if (!executor.tryExecute(task)) {
+                // computed by the next periodic refresh
+                LOGGER.log(Level.FINE, "Metrics executor saturated, deferring metrics of {0}", key.fullName());
+            }
+        }
+
+        synchronized (entries) {
+            // a copy, as in the MetricsCache, callers such as rollups merging into the metrics they get
+            return entry.metrics != null ? entry.metrics.copy() : AggregatedMetrics.empty(includeCheckout);
+        }
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        if (!AdditionalMetricsConfiguration.get().isBackgroundComputation()) {
+            synchronized (entries) {
+                entries.clear();
+            }
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (View view : allViews()) {
+            if (view instanceof ListView listView) {
+                register(listView, now);
+            }
+        }
+
+        Map<Key, Entry> toRefresh;
+        synchronized (entries) {
+            entries.values().removeIf(entry -> now - entry.lastDisplayed > RETENTION_MILLIS);
+            toRefresh = new HashMap<>(entries);
+        }
+
+        Jenkins jenkins = Jenkins.get();
+        List<Supplier<Void>> refreshes = new ArrayList<>(toRefresh.size());
+        for (Map.Entry<Key, Entry> entry : toRefresh.entrySet()) {
+            Job<?, ?> job = jenkins.getItemByFullName(entry.getKey().fullName(), Job.class);
+            if (job == null) {
+                synchronized (entries) {
+                    entries.remove(entry.getKey());
+                }
+            } else {
+                refreshes.add(() -> {
+                    refresh(job, entry.getKey(), entry.getValue());
+                    return null;
+                });
+            }
+        }
+        MetricsExecutor.get().invokeAll(refreshes);
+    }
+
+    private void register(ListView view, long now) {
+        List<AdditionalMetricColumn> columns = new ArrayList<>();
+        for (ListViewColumn column : view.getColumns()) {
+            if (column instanceof AdditionalMetricColumn metricColumn) {
+                columns.add(metricColumn);
+            }
+        }
+        if (columns.isEmpty()) {
+            return;
+        }
+
+        // folders are displayed by rollup columns
+        for (Job<?, ?> job : Rollup.jobsOf(view.getItems())) {
+            for (AdditionalMetricColumn column : columns) {
+                Key key = new Key(job.getFullName(), column.getBuildWindow(), column.needsCheckout());
+                synchronized (entries) {
+                    entries.computeIfAbsent(key, k -> new Entry()).lastDisplayed = now;
+                }
+            }
+        }
+    }
+
+    private void refresh(Job<?, ?> job, Key key, Entry entry) {
+        try {
+            AggregatedMetrics metrics = AggregatedMetrics.of(job, key.window(), key.includeCheckout());
+            synchronized (entries) {
+                entry.metrics = metrics;
+            }
+        } catch (RuntimeException e) {
+            // the last known metrics are kept
+            LOGGER.log(Level.WARNING, "Failed to compute metrics of " + key.fullName(), e);
+        }
+    }
+
+    private static List<View> allViews() {
+        Jenkins jenkins = Jenkins.get();
+        List<View> views = new ArrayList<>(jenkins.getViews());
+        for (Item item : jenkins.allItems(Item.class)) {
+            if (item instanceof ViewGroup viewGroup) {
+                views.addAll(viewGroup.getViews());
+            }
+        }
+        return views;
+    }
+
+    private void move(String oldFullName, String newFullName) {
+        synchronized (entries) {
+            Map<Key, Entry> moved = new HashMap<>();
+            entries.entrySet().removeIf(entry -> {
+                Key key = entry.getKey();
+                if (!key.fullName().equals(oldFullName)) {
+                    return false;
+                }
+                moved.put(new Key(newFullName, key.window(), key.includeCheckout()), entry.getValue());
+                return true;
+            });
+            entries.putAll(moved);
+        }
+    }
+
+    private void remove(String fullName) {
+        synchronized (entries) {
+            // the jobs of a deleted folder included
+            String prefix = fullName + "/";
+            entries.keySet().removeIf(key -> key.fullName().equals(fullName) || key.fullName().startsWith(prefix));
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Key(String fullName, BuildWindow window, boolean includeCheckout) {}
+
+    private static final class Entry {
+        private AggregatedMetrics metrics;
+        private long lastDisplayed;
+    }
+
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class ItemListenerImpl extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            get().remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // also notified for each job of a renamed or moved folder
+            get().move(oldFullName, newFullName);
+        }
+    }
+}
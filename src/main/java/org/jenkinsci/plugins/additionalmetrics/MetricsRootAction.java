@@ -0,0 +1,486 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.RootAction;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.GET;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Batched access to the metrics of many jobs in a single request, at {@code /additional-metrics/jobs}.
+ * <p>
+ * Only the requested metrics are computed, in parallel on the {@link MetricsExecutor}, and each job gets a time
+ * budget: jobs exceeding it are reported as timed out while their computation completes in the background, so
+ * they are served from the {@link JobMetricsStore} or the {@link MetricsCache} on the next request.
+ * The response is streamed one job at a time, in the requested order.
+ * <p>
+ * Also computes, at {@code /additional-metrics/cells}, the cells of list views rendered progressively, and serves,
+ * at {@code /additional-metrics/trends}, the builds of a job aggregated over time, and, at
+ * {@code /additional-metrics/prometheus}, the metrics of all jobs in the Prometheus text format.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class MetricsRootAction implements RootAction {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsRootAction.class.getName());
+
+    private static final long DEFAULT_BUDGET_MILLIS = 10_000;
+    private static final long MAX_BUDGET_MILLIS = 60_000;
+    private static final int MAX_CELLS = 100_000;
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return "additional-metrics";
+    }
+
+    /**
+     * Streams the metrics of jobs as JSON.
+     *
+     * @param jobs comma separated full names of jobs and folders, all jobs if empty; folders stand for all the jobs
+     *             they contain, recursively
+     * @param metrics comma separated names of the metrics, as exposed by the {@code jobMetrics} REST API, all
+     *                metrics if empty
+     * @param maxBuilds maximum number of most recent builds to compute metrics from, the global setting if 0
+     * @param maxDays maximum age in days of the builds to compute metrics from, the global setting if 0
+     * @param budget time budget of each job, in milliseconds
+     */
+    @GET
+    public void doJobs(
+            @QueryParameter String jobs,
+            @QueryParameter String metrics,
+            @QueryParameter int maxBuilds,
+            @QueryParameter int maxDays,
+            @QueryParameter long budget,
+            StaplerResponse2 rsp)
+            throws IOException {
+        Jenkins.get().checkPermission(Jenkins.READ);
+
+        Set<JobMetric> requestedMetrics = EnumSet.noneOf(JobMetric.class);
+        for (String name : split(metrics)) {
+            JobMetric metric = JobMetric.byName(name).orElse(null);
+            if (metric == null) {
+                rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown metric: " + name);
+                return;
+            }
+            requestedMetrics.add(metric);
+        }
+        if (requestedMetrics.isEmpty()) {
+            requestedMetrics = EnumSet.allOf(JobMetric.class);
+        }
+
+        BuildWindow window =
+                new BuildWindow(maxBuilds, maxDays).orElse(AdditionalMetricsConfiguration.get().getBuildWindow());
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(
+                budget > 0 ? Math.min(budget, MAX_BUDGET_MILLIS) : DEFAULT_BUDGET_MILLIS);
+
+        // items are resolved, and permissions checked, in the request thread
+        Map<String, Job<?, ?>> resolvedJobs = resolve(split(jobs));
+
+        rsp.setContentType("application/json;charset=UTF-8");
+        Writer writer = rsp.getWriter();
+        writer.write("{\"jobs\":[");
+        new BatchComputation(requestedMetrics, window, budgetNanos, writer).run(resolvedJobs);
+        writer.write("]}");
+        writer.flush();
+    }
+
+    /**
+     * Computes the cells of additional metric columns rendered as placeholders, see
+     * {@link AdditionalMetricsConfiguration#isProgressiveRendering()}.
+     * <p>
+     * The request is a JSON object whose {@code cells} are objects with the full name of an {@code item}, the
+     * descriptor ID of a {@code column}, and the {@code maxBuilds} and {@code maxDays} of the column. The response has
+     * the same {@code cells}, in the same order, with their sort key ({@code data}), their {@code text}, the
+     * {@code build} they link to, if any, and a {@code partial} note if their value is partial, see
+     * {@link AdditionalMetricColumn#getPartialNote}. Cells without a value, or whose item is not found, have no
+     * {@code text}, and a {@code pending} text instead if their value is not known yet, see
+     * {@link AdditionalMetricColumn#isPending}.
+     * The cells of each item are computed together, and items in parallel on the {@link MetricsExecutor}.
+     */
+    @POST
+    public void doCells(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.READ);
+
+        JSONArray requestedCells;
+        try (BufferedReader reader = req.getReader()) {
+            requestedCells = JSONObject.fromObject(reader.lines().collect(Collectors.joining("\n")))
+                    .optJSONArray("cells");
+        } catch (JSONException e) {
+            rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Malformed request");
+            return;
+        }
+        if (requestedCells == null) {
+            rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing cells");
+            return;
+        }
+        if (requestedCells.size() > MAX_CELLS) {
+            rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Too many cells, at most " + MAX_CELLS + " expected");
+            return;
+        }
+
+        // items are resolved, and permissions checked, in the request thread
+        Jenkins jenkins = Jenkins.get();
+        JSONObject[] cells = new JSONObject[requestedCells.size()];
+        AdditionalMetricColumn[] columns = new AdditionalMetricColumn[cells.length];
+        Map<Item, List<Integer>> cellsByItem = new LinkedHashMap<>();
+        for (int i = 0; i < cells.length; i++) {
+            JSONObject requestedCell = requestedCells.getJSONObject(i);
+            Item item = jenkins.getItemByFullName(requestedCell.optString("item"));
+            if (item != null
+                    && jenkins.getDescriptor(requestedCell.optString("column"))
+                            instanceof AdditionalMetricColumnDescriptor descriptor) {
+                columns[i] = descriptor.newColumn(requestedCell.optInt("maxBuilds"), requestedCell.optInt("maxDays"));
+                cellsByItem.computeIfAbsent(item, k -> new ArrayList<>()).add(i);
+            } else {
+                cells[i] = cellOf(null);
+            }
+        }
+
+        List<Supplier<Void>> computations = new ArrayList<>(cellsByItem.size());
+        for (Map.Entry<Item, List<Integer>> entry : cellsByItem.entrySet()) {
+            computations.add(() -> {
+                // the cells of an item share its metrics, through the caches
+                for (int i : entry.getValue()) {
+                    cells[i] = cellOf(columns[i].metricOf(entry.getKey()));
+                    if (cells[i].has("text")) {
+                        String partialNote = columns[i].getPartialNote(entry.getKey());
+                        if (partialNote != null) {
+                            cells[i].put("partial", partialNote);
+                        }
+                    } else if (columns[i].isPending(entry.getKey())) {
+                        cells[i].put("pending", Messages.AdditionalMetricColumn_Pending());
+                    }
+                }
+                return null;
+            });
+        }
+        MetricsExecutor.get().invokeAll(computations);
+
+        JSONObject result = new JSONObject();
+        result.put("cells", JSONArray.fromObject(cells));
+        rsp.setContentType("application/json;charset=UTF-8");
+        result.write(rsp.getWriter());
+    }
+
+    /**
+     * Returns the builds of a job aggregated over time, as kept by the {@link TrendStore}.
+     * <p>
+     * The response has the {@code fullName} of the job, the {@code granularity}, and its most recent {@code buckets},
+     * oldest first, the last one being the current one. Each bucket has its {@code start} time, its number of
+     * completed {@code builds} and of {@code successBuilds}, and, unless empty, its {@code successRate} and the
+     * {@code avgDuration} of its builds.
+     *
+     * @param job the full name of the job
+     * @param granularity {@code hour}, {@code day} or {@code week}, {@code day} if empty
+     * @param buckets the number of buckets, all the buckets kept if 0
+     */
+    @GET
+    public void doTrends(
+            @QueryParameter String job,
+            @QueryParameter String granularity,
+            @QueryParameter int buckets,
+            StaplerResponse2 rsp)
+            throws IOException {
+        Jenkins.get().checkPermission(Jenkins.READ);
+
+        TrendGranularity trendGranularity = granularity == null || granularity.isBlank()
+                ? TrendGranularity.DAY
+                : TrendGranularity.byName(granularity.trim()).orElse(null);
+        if (trendGranularity == null) {
+            rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown granularity: " + granularity);
+            return;
+        }
+        Job<?, ?> resolvedJob = job == null ? null : Jenkins.get().getItemByFullName(job, Job.class);
+        if (resolvedJob == null) {
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND, "Job not found: " + job);
+            return;
+        }
+
+        int count = buckets > 0 ? Math.min(buckets, trendGranularity.getBuckets()) : trendGranularity.getBuckets();
+        JSONArray series = new JSONArray();
+        for (TrendBucket bucket : TrendStore.get().seriesOf(resolvedJob, trendGranularity, count)) {
+            JSONObject point = new JSONObject();
+            point.put("start", bucket.start());
+            point.put("builds", bucket.builds());
+            point.put("successBuilds", bucket.successBuilds());
+            bucket.successRate().ifPresent(rate -> point.put("successRate", rate.getAsDouble()));
+            bucket.averageDuration().ifPresent(duration -> point.put("avgDuration", duration.getAsLong()));
+            series.add(point);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put("fullName", resolvedJob.getFullName());
+        result.put("granularity", trendGranularity.getName());
+        result.put("buckets", series);
+        rsp.setContentType("application/json;charset=UTF-8");
+        result.write(rsp.getWriter());
+    }
+
+    /**
+     * Serves the metrics of all jobs in the Prometheus text format, as last rendered by the {@link PrometheusExporter}.
+     * Requires the permission to read the configuration of Jenkins, since all jobs are exposed.
+     */
+    @GET
+    public void doPrometheus(StaplerResponse2 rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+
+        rsp.setContentType(PrometheusExporter.CONTENT_TYPE);
+        Writer writer = rsp.getWriter();
+        writer.write(PrometheusExporter.get().scrape());
+        writer.flush();
+    }
+
+    /**
+     * Returns a cell as rendered by the {@code cell.jelly} of the columns.
+     */
+    private static JSONObject cellOf(Object value) {
+        JSONObject cell = new JSONObject();
+        if (value instanceof RunWithDuration runWithDuration) {
+            cell.put("data", runWithDuration.duration().getAsLong());
+            cell.put("text", runWithDuration.duration().getAsString());
+            JSONObject build = new JSONObject();
+            build.put("url", runWithDuration.run().getUrl());
+            build.put("displayName", runWithDuration.run().getDisplayName());
+            cell.put("build", build);
+        } else if (value instanceof Duration duration) {
+            cell.put("data", duration.getAsLong());
+            cell.put("text", duration.getAsString());
+        } else if (value instanceof Rate rate) {
+            cell.put("data", rate.getAsDouble());
+            cell.put("text", rate.getAsString());
+        } else {
+            cell.put("data", 0);
+        }
+        return cell;
+    }
+
+    private static List<String> split(String values) {
+        List<String> result = new ArrayList<>();
+        if (values != null) {
+            for (String value : values.split(",")) {
+                if (!value.isBlank()) {
+                    result.add(value.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the requested items, by full name. Items not found or not visible are mapped to null.
+     */
+    private static Map<String, Job<?, ?>> resolve(List<String> fullNames) {
+        Jenkins jenkins = Jenkins.get();
+        Map<String, Job<?, ?>> result = new LinkedHashMap<>();
+
+        if (fullNames.isEmpty()) {
+            for (Job<?, ?> job : jenkins.allItems(Job.class)) {
+                result.put(job.getFullName(), job);
+            }
+            return result;
+        }
+
+        for (String fullName : fullNames) {
+            Item item = jenkins.getItemByFullName(fullName);
+            if (item instanceof Job<?, ?> job) {
+                result.put(job.getFullName(), job);
+            } else if (item instanceof ItemGroup<?> group) {
+                for (Job<?, ?> job : Items.getAllItems(group, Job.class)) {
+                    result.put(job.getFullName(), job);
+                }
+            } else {
+                result.putIfAbsent(fullName, null);
+            }
+        }
+        return result;
+    }
+
+    private static final class BatchComputation {
+
+        private final Set<JobMetric> metrics;
+        private final boolean includeCheckout;
+        private final BuildWindow window;
+        private final long budgetNanos;
+        private final Writer writer;
+
+        private final MetricsExecutor executor = MetricsExecutor.get();
+        private final Deque<Pending> pending = new ArrayDeque<>();
+        private boolean first = true;
+
+        BatchComputation(Set<JobMetric> metrics, BuildWindow window, long budgetNanos, Writer writer) {
+            this.metrics = metrics;
+            this.includeCheckout = metrics.stream().anyMatch(JobMetric::needsCheckout);
+            this.window = window;
+            this.budgetNanos = budgetNanos;
+            this.writer = writer;
+        }
+
+        void run(Map<String, Job<?, ?>> jobs) throws IOException {
+            // bounded number of jobs in flight, so a saturated executor does not pile up tasks
+            int maxInFlight = executor.getMaxConcurrency() * 2;
+
+            for (Map.Entry<String, Job<?, ?>> entry : jobs.entrySet()) {
+                Job<?, ?> job = entry.getValue();
+                if (job == null) {
+                    pending.add(new Pending(entry.getKey(), null, null));
+                } else {
+                    AtomicLong started = new AtomicLong();
+                    Thread caller = Thread.currentThread();
+                    FutureTask<AggregatedMetrics> task = executor.newTask(() -> {
+                        started.set(System.nanoTime());
+                        // run by the request thread if rejected by the executor, which cannot time it out
+                        return Thread.currentThread() == caller
+                                ? metricsWithinBudgetOf(job)
+                                : AggregatedMetrics.of(job, window, includeCheckout);
+                    });
+                    if (!executor.tryExecute(task)) {
+                        task.run();
+                    }
+                    pending.add(new Pending(entry.getKey(), task, started));
+                }
+
+                while (pending.size() >= maxInFlight) {
+                    write(pending.poll());
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                write(pending.poll());
+            }
+        }
+
+        /**
+         * Computes the metrics of a job within the budget of a job as well as the global computation budget,
+         * partial if exceeded.
+         */
+        private AggregatedMetrics metricsWithinBudgetOf(Job<?, ?> job) {
+            ComputationBudget global = AdditionalMetricsConfiguration.get().getComputationBudget();
+            long maxMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+            if (global.maxMillis() > 0) {
+                maxMillis = Math.min(maxMillis, global.maxMillis());
+            }
+            ComputationBudget budget = new ComputationBudget(global.maxRuns(), maxMillis);
+            return MetricsInstrumentation.get()
+                    .measureAggregation(job, () -> AggregatedMetrics.compute(job, window, includeCheckout, budget));
+        }
+
+        private void write(Pending job) throws IOException {
+            JSONObject result = new JSONObject();
+            result.put("fullName", job.fullName);
+
+            if (job.task == null) {
+                result.put("error", "not found");
+            } else {
+                try {
+                    AggregatedMetrics aggregatedMetrics = await(job);
+                    result.put("metrics", toJson(aggregatedMetrics));
+                    result.put("partial", aggregatedMetrics.isPartial());
+                    aggregatedMetrics.exceededBudget().ifPresent(limit -> {
+                        result.put("exceededBudget", limit.getName());
+                        result.put("partialRuns", aggregatedMetrics.completedRuns());
+                    });
+                } catch (TimeoutException e) {
+                    // tasks not started yet are dropped, the other ones complete and warm up the caches
+                    job.task.cancel(false);
+                    result.put("timedOut", true);
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Failed to compute metrics of " + job.fullName, e.getCause());
+                    result.put("error", "failed");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while computing metrics", e);
+                }
+            }
+
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            result.write(writer);
+            writer.flush();
+        }
+
+        /**
+         * Waits for the budget of a job, starting when its computation started if it was queued meanwhile.
+         */
+        private AggregatedMetrics await(Pending job) throws TimeoutException, ExecutionException, InterruptedException {
+            long deadline = System.nanoTime() + budgetNanos;
+            while (true) {
+                try {
+                    return job.task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    long started = job.started.get();
+                    if (started == 0 || started + budgetNanos <= System.nanoTime()) {
+                        throw e;
+                    }
+                    deadline = started + budgetNanos;
+                }
+            }
+        }
+
+        private JSONObject toJson(AggregatedMetrics aggregatedMetrics) {
+            JSONObject result = new JSONObject();
+            for (JobMetric metric : metrics) {
+                Number value = metric.valueOf(aggregatedMetrics);
+                // same defaults as the jobMetrics REST API
+                result.put(metric.getName(), value != null ? value : 0);
+            }
+            return result;
+        }
+    }
+
+    private static final class Pending {
+        private final String fullName;
+        private final FutureTask<AggregatedMetrics> task;
+        private final AtomicLong started;
+
+        Pending(String fullName, FutureTask<AggregatedMetrics> task, AtomicLong started) {
+            this.fullName = fullName;
+            this.task = task;
+            this.started = started;
+        }
+    }
+}
@@ -1,15 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.*;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class MinCheckoutDurationColumn extends ListViewColumn {
+public class MinCheckoutDurationColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public MinCheckoutDurationColumn() {
@@ -18,8 +15,12 @@ public class MinCheckoutDurationColumn extends ListViewColumn {
 
     @Metric
     public RunWithDuration getShortestCheckoutRun(Job<? extends Job, ? extends Run> job) {
-        return Utils.findRun(job.getBuilds(), COMPLETED, RUN_CHECKOUT_DURATION, MIN)
-                .orElse(null);
+        return metricsWithCheckoutOf(job).checkoutDurations().shortest().orElse(null);
+    }
+
+    @Override
+    boolean needsCheckout() {
+        return true;
     }
 
     @Extension
@@ -1,12 +1,8 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.*;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.findRun;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
@@ -14,7 +10,7 @@ import org.kohsuke.stapler.DataBoundConstructor;
  * A Jenkins list view column that displays the shortest running completed build for a job.
  * Shows both the build information and its duration.
  */
-public class MinDurationColumn extends ListViewColumn {
+public class MinDurationColumn extends AdditionalMetricColumn {
 
     /**
      * Creates a new minimum duration column.
@@ -35,7 +31,7 @@ public class MinDurationColumn extends ListViewColumn {
      */
     @Metric
     public RunWithDuration getShortestRun(Job<? extends Job, ? extends Run> job) {
-        return findRun(job.getBuilds(), COMPLETED, RUN_DURATION, MIN).orElse(null);
+        return metricsOf(job).completedDurations().shortest().orElse(null);
     }
 
     @Extension
@@ -1,16 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.*;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.findRun;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class MinSuccessDurationColumn extends ListViewColumn {
+public class MinSuccessDurationColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public MinSuccessDurationColumn() {
@@ -19,7 +15,7 @@ public class MinSuccessDurationColumn extends ListViewColumn {
 
     @Metric
     public RunWithDuration getShortestSuccessfulRun(Job<? extends Job, ? extends Run> job) {
-        return findRun(job.getBuilds(), SUCCESS, RUN_DURATION, MIN).orElse(null);
+        return metricsOf(job).successDurations().shortest().orElse(null);
     }
 
     @Extension
@@ -0,0 +1,89 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.concurrent.TimeUnit;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Exposes the cost of an operation measured by the {@link MetricsInstrumentation} through the REST API.
+ */
+@ExportedBean
+public final class OperationCost {
+
+    private final String name;
+    private final long calls;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final long runs;
+    private final long flowNodes;
+    private final long buildsLoaded;
+
+    OperationCost(
+            String name, long calls, long wallNanos, long cpuNanos, long runs, long flowNodes, long buildsLoaded) {
+        this.name = name;
+        this.calls = calls;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.runs = runs;
+        this.flowNodes = flowNodes;
+        this.buildsLoaded = buildsLoaded;
+    }
+
+    @Exported
+    public String getName() {
+        return name;
+    }
+
+    @Exported
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Returns the total wall time of the calls, in milliseconds.
+     */
+    @Exported
+    public long getWallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(wallNanos);
+    }
+
+    /**
+     * Returns the total CPU time of the calls, on their own thread, in milliseconds.
+     */
+    @Exported
+    public long getCpuMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(cpuNanos);
+    }
+
+    /**
+     * Returns the average wall time of a call, in milliseconds.
+     */
+    @Exported
+    public double getAverageWallMillis() {
+        return calls == 0 ? 0 : wallNanos / 1_000_000.0 / calls;
+    }
+
+    /**
+     * Returns the number of runs aggregated, or whose flow graph was scanned.
+     */
+    @Exported
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the number of flow nodes walked to time checkouts.
+     */
+    @Exported
+    public long getFlowNodes() {
+        return flowNodes;
+    }
+
+    /**
+     * Returns the number of builds loaded from disk by the calls.
+     */
+    @Exported
+    public long getBuildsLoaded() {
+        return buildsLoaded;
+    }
+}
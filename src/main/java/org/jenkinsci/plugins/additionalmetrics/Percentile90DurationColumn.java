@@ -0,0 +1,43 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the 90th percentile duration of completed builds for a job.
+ * Unlike the average, it is not skewed by a few exceptionally short or long builds.
+ */
+public class Percentile90DurationColumn extends AdditionalMetricColumn {
+
+    /**
+     * Creates a new 90th percentile duration column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public Percentile90DurationColumn() {
+        super();
+    }
+
+    /**
+     * Estimates and returns the 90th percentile duration of completed builds for the specified job, within 1%.
+     *
+     * @param job the Jenkins job to calculate the 90th percentile duration for
+     * @return the 90th percentile duration of completed builds, or null if no completed builds exist
+     */
+    @Metric
+    public Duration getPercentile90Duration(Job<? extends Job, ? extends Run> job) {
+        return metricsOf(job).completedDurations().percentile(0.9).orElse(null);
+    }
+
+    @Extension
+    @Symbol("p90Duration")
+    public static class DescriptorImpl extends AdditionalMetricColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.Percentile90DurationColumn_DisplayName());
+        }
+    }
+}
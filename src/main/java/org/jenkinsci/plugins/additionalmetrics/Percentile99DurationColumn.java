@@ -0,0 +1,43 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the 99th percentile duration of completed builds for a job.
+ * Unlike the average, it is not skewed by a few exceptionally short or long builds.
+ */
+public class Percentile99DurationColumn extends AdditionalMetricColumn {
+
+    /**
+     * Creates a new 99th percentile duration column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public Percentile99DurationColumn() {
+        super();
+    }
+
+    /**
+     * Estimates and returns the 99th percentile duration of completed builds for the specified job, within 1%.
+     *
+     * @param job the Jenkins job to calculate the 99th percentile duration for
+     * @return the 99th percentile duration of completed builds, or null if no completed builds exist
+     */
+    @Metric
+    public Duration getPercentile99Duration(Job<? extends Job, ? extends Run> job) {
+        return metricsOf(job).completedDurations().percentile(0.99).orElse(null);
+    }
+
+    @Extension
+    @Symbol("p99Duration")
+    public static class DescriptorImpl extends AdditionalMetricColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.Percentile99DurationColumn_DisplayName());
+        }
+    }
+}
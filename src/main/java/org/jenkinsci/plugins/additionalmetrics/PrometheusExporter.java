@@ -0,0 +1,260 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.TaskListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Exposes the metrics of all jobs in the Prometheus text format, at {@code /additional-metrics/prometheus}.
+ * <p>
+ * Scrapes are served from an exposition rendered every minute in the background, from the metrics kept up to date
+ * by the {@link JobMetricsStore} or cached by the {@link MetricsCache}, so a scrape costs a copy of the last
+ * exposition whatever the number of jobs and builds. The exposition is only rendered while scraped within the last
+ * hour, the first scrape triggering the first rendering.
+ * <p>
+ * Series are labeled by job, or by folder to bound their cardinality, the metrics of the jobs of a folder being
+ * pooled as in a {@link Rollup}, see {@link AdditionalMetricsConfiguration#isPrometheusByFolder()}.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class PrometheusExporter extends AsyncPeriodicWork {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Logger LOGGER = Logger.getLogger(PrometheusExporter.class.getName());
+
+    private static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+
+    private volatile String exposition;
+    private volatile long lastScraped;
+
+    public PrometheusExporter() {
+        super("Additional metrics Prometheus exposition");
+    }
+
+    static PrometheusExporter get() {
+        return ExtensionList.lookupSingleton(PrometheusExporter.class);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return MIN;
+    }
+
+    /**
+     * Returns the last rendered exposition, without rendering it.
+     *
+     * @return the exposition, empty until first rendered in the background
+     */
+    String scrape() {
+        lastScraped = System.currentTimeMillis();
+        String known = exposition;
+        if (known == null) {
+            // no-op if already rendering
+            doRun();
+            return "";
+        }
+        return known;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        if (System.currentTimeMillis() - lastScraped > RETENTION_MILLIS) {
+            exposition = null;
+            return;
+        }
+        exposition = render();
+    }
+
+    private String render() {
+        AdditionalMetricsConfiguration configuration = AdditionalMetricsConfiguration.get();
+        Pattern includes;
+        Pattern excludes;
+        try {
+            includes = compile(configuration.getPrometheusIncludes());
+            excludes = compile(configuration.getPrometheusExcludes());
+        } catch (PatternSyntaxException e) {
+            LOGGER.log(Level.WARNING, "Invalid pattern of jobs exported to Prometheus, none exported", e);
+            return "";
+        }
+
+        List<Job<?, ?>> jobs = new ArrayList<>();
+        for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+            String fullName = job.getFullName();
+            if ((includes == null || includes.matcher(fullName).matches())
+                    && (excludes == null || !excludes.matcher(fullName).matches())) {
+                jobs.add(job);
+            }
+        }
+
+        BuildWindow window = configuration.getBuildWindow();
+        List<Supplier<AggregatedMetrics>> computations = new ArrayList<>(jobs.size());
+        for (Job<?, ?> job : jobs) {
+            computations.add(() -> {
+                try {
+                    return AggregatedMetrics.of(job, window, true);
+                } catch (RuntimeException e) {
+                    // the job is left out of this exposition only
+                    LOGGER.log(Level.WARNING, "Failed to compute metrics of " + job.getFullName(), e);
+                    return null;
+                }
+            });
+        }
+        List<AggregatedMetrics> metrics = MetricsExecutor.get().invokeAll(computations);
+
+        boolean byFolder = configuration.isPrometheusByFolder();
+        Map<String, Summary> summaries = new TreeMap<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            if (metrics.get(i) != null) {
+                Job<?, ?> job = jobs.get(i);
+                String labelValue = byFolder ? folderOf(job) : job.getFullName();
+                summaries.computeIfAbsent(labelValue, k -> new Summary()).add(metrics.get(i));
+            }
+        }
+
+        Exposition result = new Exposition(byFolder ? "jenkins_folder" : "jenkins_job", summaries);
+        result.gauge("builds", "Completed builds within the build window.", s -> Optional.of((double) s.completedRuns));
+        result.gauge("success_rate", "Share of successful builds.", s -> rate(s, s.successRuns));
+        result.gauge("failure_rate", "Share of unsuccessful builds.", s -> rate(s, s.completedRuns - s.successRuns));
+        result.gauge("unstable_rate", "Share of unstable builds.", s -> rate(s, s.unstableRuns));
+        result.durations("build_duration", "builds", s -> s.completedDurations);
+        result.durations("checkout_duration", "checkouts of builds", s -> s.checkoutDurations);
+        return result.toString();
+    }
+
+    private static String folderOf(Job<?, ?> job) {
+        String folder = job.getParent().getFullName();
+        // the root, whose full name is empty
+        return folder.isEmpty() ? "/" : folder;
+    }
+
+    private static Pattern compile(String regex) {
+        return regex == null ? null : Pattern.compile(regex);
+    }
+
+    private static Optional<Double> rate(Summary summary, int runs) {
+        if (summary.completedRuns == 0) {
+            return Optional.empty();
+        }
+        return Optional.of((double) runs / summary.completedRuns);
+    }
+
+    /**
+     * Pooled metrics of the jobs sharing a label value.
+     */
+    private static final class Summary {
+        private final DurationSummary completedDurations = new DurationSummary();
+        private final DurationSummary checkoutDurations = new DurationSummary();
+        private int completedRuns;
+        private int successRuns;
+        private int unstableRuns;
+
+        void add(AggregatedMetrics metrics) {
+            completedDurations.addAll(metrics.completedDurations());
+            checkoutDurations.addAll(metrics.checkoutDurations());
+            completedRuns += metrics.completedRuns();
+            successRuns += metrics.successRuns();
+            unstableRuns += metrics.unstableRuns();
+        }
+    }
+
+    /**
+     * Renders metric families, series of a family being sorted by label value.
+     */
+    private static final class Exposition {
+        private static final String PREFIX = "additional_metrics_";
+
+        private final StringBuilder text = new StringBuilder();
+        private final String labelName;
+        private final Map<String, Summary> summaries;
+
+        Exposition(String labelName, Map<String, Summary> summaries) {
+            this.labelName = labelName;
+            this.summaries = summaries;
+        }
+
+        void gauge(String name, String help, Function<Summary, Optional<Double>> value) {
+            header(name, help, "gauge");
+            for (Map.Entry<String, Summary> entry : summaries.entrySet()) {
+                value.apply(entry.getValue())
+                        .ifPresent(v -> sample(name, labelsOf(entry.getKey(), null), v));
+            }
+        }
+
+        void durations(String name, String subject, Function<Summary, DurationSummary> durations) {
+            String summaryName = name + "_seconds";
+            header(summaryName, "Durations of " + subject + ".", "summary");
+            for (Map.Entry<String, Summary> entry : summaries.entrySet()) {
+                DurationSummary summary = durations.apply(entry.getValue());
+                for (double quantile : QUANTILES) {
+                    summary.percentile(quantile)
+                            .ifPresent(d -> sample(summaryName, labelsOf(entry.getKey(), quantile), seconds(d)));
+                }
+                sample(summaryName + "_sum", labelsOf(entry.getKey(), null), summary.total() / 1000.0);
+                sample(summaryName + "_count", labelsOf(entry.getKey(), null), summary.count());
+            }
+
+            String stdevName = name + "_stdev_seconds";
+            header(stdevName, "Standard deviation of the durations of " + subject + ".", "gauge");
+            for (Map.Entry<String, Summary> entry : summaries.entrySet()) {
+                durations
+                        .apply(entry.getValue())
+                        .standardDeviation()
+                        .ifPresent(d -> sample(stdevName, labelsOf(entry.getKey(), null), seconds(d)));
+            }
+        }
+
+        private void header(String name, String help, String type) {
+            text.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+            text.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        }
+
+        private void sample(String name, String labels, double value) {
+            text.append(PREFIX).append(name).append(labels).append(' ').append(value).append('\n');
+        }
+
+        private String labelsOf(String labelValue, Double quantile) {
+            StringBuilder labels = new StringBuilder("{").append(labelName).append("=\"");
+            for (char c : labelValue.toCharArray()) {
+                switch (c) {
+                    case '\\' -> labels.append("\\\\");
+                    case '"' -> labels.append("\\\"");
+                    case '\n' -> labels.append("\\n");
+                    default -> labels.append(c);
+                }
+            }
+            labels.append('"');
+            if (quantile != null) {
+                labels.append(",quantile=\"").append(quantile).append('"');
+            }
+            return labels.append('}').toString();
+        }
+
+        private static double seconds(Duration duration) {
+            return duration.getAsLong() / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
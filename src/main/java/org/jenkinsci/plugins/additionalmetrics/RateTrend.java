@@ -0,0 +1,36 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+
+/**
+ * Represents a rate over a recent period, compared to the one of the period before.
+ *
+ * @param current the rate over the recent period
+ * @param previous the rate over the period before, or null if there were no builds
+ */
+public record RateTrend(Rate current, Rate previous) {
+
+    /**
+     * Returns the change of the rate, in percentage points.
+     *
+     * @return the change, or null if there is no previous rate
+     */
+    public Double getDelta() {
+        return previous == null ? null : (current.getAsDouble() - previous.getAsDouble()) * 100;
+    }
+
+    /**
+     * Returns the current rate followed by its change, formatted as e.g. "75.25% (+5.00 pts)".
+     *
+     * @return the current rate and its change
+     */
+    public String getAsString() {
+        Double delta = getDelta();
+        if (delta == null) {
+            return current.getAsString();
+        }
+        NumberFormat formatter = new DecimalFormat("+0.00;-0.00");
+        return current.getAsString() + " (" + formatter.format(delta) + " pts)";
+    }
+}
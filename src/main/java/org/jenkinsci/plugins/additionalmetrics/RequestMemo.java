@@ -0,0 +1,103 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.Job;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+
+/**
+ * Metrics of jobs memoized for the duration of an HTTP request, so that all the additional metric columns of a view
+ * share a single aggregation of each job, whatever the state of the {@link MetricsCache}.
+ * <p>
+ * Tasks run on the {@link MetricsExecutor} share the memo of the request they were submitted from.
+ */
+final class RequestMemo {
+
+    private static final String ATTRIBUTE = RequestMemo.class.getName();
+
+    private static final ThreadLocal<RequestMemo> SUBMITTED_FROM = new ThreadLocal<>();
+
+    private final Map<Key, AggregatedMetrics> metrics = new ConcurrentHashMap<>();
+
+    RequestMemo() {}
+
+    /**
+     * Returns the memo of the current request, or null when not serving a request.
+     */
+    static RequestMemo current() {
+        RequestMemo memo = SUBMITTED_FROM.get();
+        if (memo != null) {
+            return memo;
+        }
+        StaplerRequest2 request = Stapler.getCurrentRequest2();
+        if (request == null) {
+            return null;
+        }
+        memo = (RequestMemo) request.getAttribute(ATTRIBUTE);
+        if (memo == null) {
+            memo = new RequestMemo();
+            request.setAttribute(ATTRIBUTE, memo);
+        }
+        return memo;
+    }
+
+    /**
+     * Runs a computation with the given memo as the current one.
+     *
+     * @param memo the memo, or null to run the computation as is
+     * @param computation the computation
+     * @return the result of the computation
+     */
+    static <T> T supplyWith(RequestMemo memo, Supplier<T> computation) {
+        if (memo == null) {
+            return computation.get();
+        }
+        RequestMemo previous = SUBMITTED_FROM.get();
+        SUBMITTED_FROM.set(memo);
+        try {
+            return computation.get();
+        } finally {
+            if (previous == null) {
+                SUBMITTED_FROM.remove();
+            } else {
+                SUBMITTED_FROM.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the metrics of a job memoized by the current request, computing them if absent.
+     * Metrics including checkout durations are also used for lookups that do not need them.
+     *
+     * @param job the job
+     * @param window the runs to consider
+     * @param includeCheckout whether checkout durations are needed
+     * @param computation computes the metrics, used as is when not serving a request
+     * @return the metrics
+     */
+    static AggregatedMetrics metricsOf(
+            Job<?, ?> job, BuildWindow window, boolean includeCheckout, Supplier<AggregatedMetrics> computation) {
+        RequestMemo memo = current();
+        if (memo == null) {
+            return computation.get();
+        }
+
+        String fullName = job.getFullName();
+        AggregatedMetrics known = memo.metrics.get(new Key(fullName, window, true));
+        if (known == null && !includeCheckout) {
+            known = memo.metrics.get(new Key(fullName, window, false));
+        }
+        if (known != null) {
+            return known;
+        }
+
+        // computed without locking, concurrent lookups of the same job may compute twice
+        AggregatedMetrics computed = computation.get();
+        memo.metrics.put(new Key(fullName, window, includeCheckout), computed);
+        return computed;
+    }
+
+    private record Key(String fullName, BuildWindow window, boolean includeCheckout) {}
+}
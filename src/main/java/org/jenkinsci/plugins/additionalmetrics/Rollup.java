@@ -0,0 +1,165 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Items;
+import hudson.model.Job;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of many jobs, like the ones of a folder or a view, as if their runs were all runs of a single job.
+ * <p>
+ * They are merged from the {@link AggregatedMetrics} of each job, which are kept up to date by the
+ * {@link JobMetricsStore} or cached by the {@link MetricsCache}: once these exist, a rollup costs a merge per job
+ * rather than a traversal of every run. Run based rates and durations are the ones of all the runs pooled together.
+ * Time rates are the share of the time observed across jobs, each job being observed from its oldest run.
+ * Checkout durations, which require walking the flow graph of every run, are not rolled up.
+ */
+final class Rollup {
+
+    private final DurationSummary completedDurations = new DurationSummary();
+    private final DurationSummary successDurations = new DurationSummary();
+
+    private int jobs;
+    private int partialJobs;
+    private int completedRuns;
+    private int successRuns;
+    private int unstableRuns;
+    private long successTime;
+    private long failureTime;
+
+    private Rollup() {}
+
+    /**
+     * Rolls up the metrics of jobs, computing the ones not known yet on the {@link MetricsExecutor}.
+     *
+     * @param jobs the jobs
+     * @param window the runs to consider in each job
+     * @return the rolled up metrics
+     */
+    static Rollup of(Collection<? extends Job<?, ?>> jobs, BuildWindow window) {
+        return of(jobs, job -> AggregatedMetrics.of(job, window, false));
+    }
+
+    /**
+     * Rolls up the metrics of jobs, obtained on the {@link MetricsExecutor}.
+     *
+     * @param jobs the jobs
+     * @param metricsOf obtains the metrics of a job
+     * @return the rolled up metrics
+     */
+    static Rollup of(Collection<? extends Job<?, ?>> jobs, Function<Job<?, ?>, AggregatedMetrics> metricsOf) {
+        List<Supplier<AggregatedMetrics>> computations = new ArrayList<>(jobs.size());
+        for (Job<?, ?> job : jobs) {
+            computations.add(() -> metricsOf.apply(job));
+        }
+
+        Rollup rollup = new Rollup();
+        long now = System.currentTimeMillis();
+        for (AggregatedMetrics metrics : MetricsExecutor.get().invokeAll(computations)) {
+            rollup.add(metrics, now);
+        }
+        return rollup;
+    }
+
+    /**
+     * Returns the jobs contained in items, recursively, among the ones visible to the current user.
+     */
+    static Set<Job<?, ?>> jobsOf(Collection<? extends Item> items) {
+        Set<Job<?, ?>> jobs = new LinkedHashSet<>();
+        for (Item item : items) {
+            if (item instanceof Job<?, ?> job) {
+                jobs.add(job);
+            } else if (item instanceof ItemGroup<?> group) {
+                for (Job<?, ?> job : Items.getAllItems(group, Job.class)) {
+                    jobs.add(job);
+                }
+            }
+        }
+        return jobs;
+    }
+
+    private void add(AggregatedMetrics metrics, long now) {
+        jobs++;
+        if (metrics.isPartial()) {
+            partialJobs++;
+        }
+        if (metrics.completedRuns() == 0) {
+            return;
+        }
+
+        completedDurations.addAll(metrics.completedDurations());
+        successDurations.addAll(metrics.successDurations());
+
+        completedRuns += metrics.completedRuns();
+        successRuns += metrics.successRuns();
+        unstableRuns += metrics.unstableRuns();
+        successTime += metrics.successTime(now);
+        failureTime += metrics.failureTime(now);
+    }
+
+    int jobs() {
+        return jobs;
+    }
+
+    /**
+     * Returns whether the metrics of some jobs are partial, see {@link AggregatedMetrics#isPartial()}.
+     */
+    boolean isPartial() {
+        return partialJobs > 0;
+    }
+
+    int completedRuns() {
+        return completedRuns;
+    }
+
+    DurationSummary completedDurations() {
+        return completedDurations;
+    }
+
+    DurationSummary successDurations() {
+        return successDurations;
+    }
+
+    Optional<Rate> successRate() {
+        return rateOf(successRuns);
+    }
+
+    Optional<Rate> failureRate() {
+        return rateOf(completedRuns - successRuns);
+    }
+
+    Optional<Rate> unstableRate() {
+        return rateOf(unstableRuns);
+    }
+
+    Optional<Rate> successTimeRate() {
+        return timeRateOf(successTime);
+    }
+
+    Optional<Rate> failureTimeRate() {
+        return timeRateOf(failureTime);
+    }
+
+    private Optional<Rate> rateOf(int runs) {
+        if (completedRuns == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Rate((double) runs / completedRuns));
+    }
+
+    private Optional<Rate> timeRateOf(long time) {
+        long observedTime = successTime + failureTime;
+        if (completedRuns == 0 || observedTime <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Rate((double) time / observedTime));
+    }
+}
@@ -0,0 +1,94 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.MetricsActionFactory.isExported;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.AbstractItem;
+import hudson.model.Action;
+import hudson.model.Api;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.TransientViewActionFactory;
+import hudson.model.View;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import jenkins.model.TransientActionFactory;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Adds the metrics rolled up over all their jobs to folders, like the ones of multibranch projects or organizations,
+ * and to views. They are exported with the actions of folders, and at {@code rollup/api} for both.
+ */
+@Extension
+public class RollupActionFactory extends TransientActionFactory<AbstractItem> {
+    @Override
+    public Class<AbstractItem> type() {
+        return AbstractItem.class;
+    }
+
+    @NonNull
+    @Override
+    public Collection<? extends Action> createFor(@NonNull AbstractItem target) {
+        if (!(target instanceof ItemGroup<?>)) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(new RollupAction(() -> List.of(target)));
+    }
+
+    /**
+     * Adds the metrics rolled up over all their jobs to views.
+     */
+    @Extension
+    public static class ViewRollupActionFactory extends TransientViewActionFactory {
+        @Override
+        public List<Action> createFor(View view) {
+            return List.of(new RollupAction(view::getItems));
+        }
+    }
+
+    @ExportedBean
+    public static class RollupAction implements Action {
+        private final Supplier<Collection<? extends Item>> items;
+
+        RollupAction(Supplier<Collection<? extends Item>> items) {
+            this.items = items;
+        }
+
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return "rollup";
+        }
+
+        /**
+         * Exposes the rolled up metrics of views, whose REST API does not export their actions.
+         */
+        public Api getApi() {
+            return new Api(this);
+        }
+
+        /**
+         * Returns the metrics rolled up over all the jobs of the folder or the view, exported under the same
+         * conditions as {@link MetricsActionFactory.MetricsAction#getJobMetrics()}.
+         *
+         * @return the metrics, or null if not requested
+         */
+        @Exported(skipNull = true)
+        public RollupMetrics getRollupMetrics() {
+            return isExported("rollupMetrics") ? new RollupMetrics(items.get()) : null;
+        }
+    }
+}
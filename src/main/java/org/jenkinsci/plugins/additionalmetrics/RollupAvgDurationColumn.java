@@ -0,0 +1,42 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Item;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the average duration of all the builds of a folder, pooled over all the
+ * jobs it contains, recursively. For jobs, it displays the average duration of their own builds.
+ */
+public class RollupAvgDurationColumn extends AdditionalMetricColumn {
+
+    /**
+     * Creates a new rollup average duration column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public RollupAvgDurationColumn() {
+        super();
+    }
+
+    /**
+     * Returns the average duration of completed builds across all the jobs of the specified item.
+     *
+     * @param item the job or folder to calculate the duration for
+     * @return the average duration, or null if no completed builds exist
+     */
+    @Metric
+    public Duration getAverageDuration(Item item) {
+        return rollupOf(item).completedDurations().average().orElse(null);
+    }
+
+    @Extension
+    @Symbol("rollupAvgDuration")
+    public static class DescriptorImpl extends AdditionalMetricColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.RollupAvgDurationColumn_DisplayName());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.Item;
+import java.util.Collection;
+import java.util.Optional;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Exposes the metrics of all the jobs of a folder or a view through the REST API, see {@link Rollup}.
+ * <p>
+ * They are rolled up within the global build window, the first time any of them is requested.
+ */
+@ExportedBean
+public final class RollupMetrics {
+
+    private final Collection<? extends Item> items;
+    private Rollup rollup;
+
+    /**
+     * @param items the jobs and folders to roll up, folders standing for all the jobs they contain, recursively
+     */
+    RollupMetrics(Collection<? extends Item> items) {
+        this.items = items;
+    }
+
+    private Rollup rollup() {
+        if (rollup == null) {
+            rollup = Rollup.of(Rollup.jobsOf(items), AdditionalMetricsConfiguration.get().getBuildWindow());
+        }
+        return rollup;
+    }
+
+    @Exported
+    public int getJobs() {
+        return rollup().jobs();
+    }
+
+    @Exported
+    public int getBuilds() {
+        return rollup().completedRuns();
+    }
+
+    @Exported
+    public long getAvgDuration() {
+        return durationOrDefaultToZero(rollup().completedDurations().average());
+    }
+
+    @Exported
+    public long getAvgSuccessDuration() {
+        return durationOrDefaultToZero(rollup().successDurations().average());
+    }
+
+    @Exported
+    public long getMaxDuration() {
+        return durationOrDefaultToZero(rollup().completedDurations().longestDuration());
+    }
+
+    @Exported
+    public long getMaxSuccessDuration() {
+        return durationOrDefaultToZero(rollup().successDurations().longestDuration());
+    }
+
+    @Exported
+    public long getMinDuration() {
+        return durationOrDefaultToZero(rollup().completedDurations().shortestDuration());
+    }
+
+    @Exported
+    public long getMinSuccessDuration() {
+        return durationOrDefaultToZero(rollup().successDurations().shortestDuration());
+    }
+
+    @Exported
+    public double getSuccessRate() {
+        return rateOrDefaultToZero(rollup().successRate());
+    }
+
+    @Exported
+    public double getFailureRate() {
+        return rateOrDefaultToZero(rollup().failureRate());
+    }
+
+    @Exported
+    public double getSuccessTimeRate() {
+        return rateOrDefaultToZero(rollup().successTimeRate());
+    }
+
+    @Exported
+    public double getFailureTimeRate() {
+        return rateOrDefaultToZero(rollup().failureTimeRate());
+    }
+
+    @Exported
+    public long getStandardDeviationDuration() {
+        return durationOrDefaultToZero(rollup().completedDurations().standardDeviation());
+    }
+
+    @Exported
+    public long getStandardDeviationSuccessDuration() {
+        return durationOrDefaultToZero(rollup().successDurations().standardDeviation());
+    }
+
+    @Exported
+    public double getUnstableRate() {
+        return rateOrDefaultToZero(rollup().unstableRate());
+    }
+
+    @Exported
+    public long getP50Duration() {
+        return durationOrDefaultToZero(rollup().completedDurations().percentile(0.5));
+    }
+
+    @Exported
+    public long getP90Duration() {
+        return durationOrDefaultToZero(rollup().completedDurations().percentile(0.9));
+    }
+
+    @Exported
+    public long getP95Duration() {
+        return durationOrDefaultToZero(rollup().completedDurations().percentile(0.95));
+    }
+
+    @Exported
+    public long getP99Duration() {
+        return durationOrDefaultToZero(rollup().completedDurations().percentile(0.99));
+    }
+
+    private static double rateOrDefaultToZero(Optional<Rate> rate) {
+        return rate.map(Rate::getAsDouble).orElse(0.0);
+    }
+
+    private static long durationOrDefaultToZero(Optional<Duration> duration) {
+        return duration.map(Duration::getAsLong).orElse(0L);
+    }
+}
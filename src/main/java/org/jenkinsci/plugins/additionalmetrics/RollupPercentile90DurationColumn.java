@@ -0,0 +1,43 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Item;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the 90th percentile duration of all the builds of a folder, pooled over
+ * all the jobs it contains, recursively. For jobs, it displays the 90th percentile duration of their own builds.
+ */
+public class RollupPercentile90DurationColumn extends AdditionalMetricColumn {
+
+    /**
+     * Creates a new rollup 90th percentile duration column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public RollupPercentile90DurationColumn() {
+        super();
+    }
+
+    /**
+     * Estimates and returns the 90th percentile duration of completed builds across all the jobs of the specified
+     * item, within 1%.
+     *
+     * @param item the job or folder to calculate the duration for
+     * @return the 90th percentile duration, or null if no completed builds exist
+     */
+    @Metric
+    public Duration getPercentile90Duration(Item item) {
+        return rollupOf(item).completedDurations().percentile(0.9).orElse(null);
+    }
+
+    @Extension
+    @Symbol("rollupP90Duration")
+    public static class DescriptorImpl extends AdditionalMetricColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.RollupPercentile90DurationColumn_DisplayName());
+        }
+    }
+}
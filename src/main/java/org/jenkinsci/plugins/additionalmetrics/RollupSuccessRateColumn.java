@@ -0,0 +1,42 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Item;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the success rate of all the builds of a folder, pooled over all the jobs it
+ * contains, recursively. For jobs, it displays the success rate of their own builds.
+ */
+public class RollupSuccessRateColumn extends AdditionalMetricColumn {
+
+    /**
+     * Creates a new rollup success rate column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public RollupSuccessRateColumn() {
+        super();
+    }
+
+    /**
+     * Returns the success rate of completed builds across all the jobs of the specified item.
+     *
+     * @param item the job or folder to calculate the rate for
+     * @return the success rate, or null if no completed builds exist
+     */
+    @Metric
+    public Rate getSuccessRate(Item item) {
+        return rollupOf(item).successRate().orElse(null);
+    }
+
+    @Extension
+    @Symbol("rollupSuccessRate")
+    public static class DescriptorImpl extends AdditionalMetricColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.RollupSuccessRateColumn_DisplayName());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.function.LongConsumer;
+
+/**
+ * One-pass, allocation-free mean and variance of a series of longs.
+ * <p>
+ * Uses Welford's algorithm, which is numerically stable, and Chan et al.'s formula to merge partial results,
+ * so it can be used as a parallel stream collector:
+ * {@code longStream.collect(RunningStats::new, RunningStats::accept, RunningStats::combine)}.
+ */
+final class RunningStats implements LongConsumer {
+
+    private long count;
+    private long sum;
+    private double mean;
+    private double m2;
+
+    RunningStats copy() {
+        RunningStats copy = new RunningStats();
+        copy.combine(this);
+        return copy;
+    }
+
+    @Override
+    public void accept(long value) {
+        count++;
+        sum += value;
+
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Merges the values accepted by another instance into this one.
+     */
+    void combine(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            mean = other.mean;
+            m2 = other.m2;
+            return;
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        sum += other.sum;
+    }
+
+    /**
+     * Removes a previously accepted value.
+     */
+    void remove(long value) {
+        count--;
+        sum -= value;
+
+        if (count == 0) {
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+
+        double delta = value - mean;
+        mean -= delta / count;
+        m2 = Math.max(0, m2 - delta * (value - mean));
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * Returns the exact average, as {@link java.util.stream.LongStream#average()} computes it.
+     */
+    double average() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the population standard deviation.
+     */
+    double standardDeviation() {
+        return count == 0 ? 0 : Math.sqrt(m2 / count);
+    }
+}
@@ -1,17 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.RUN_DURATION;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.stdDevDuration;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class StdevDurationColumn extends ListViewColumn {
+public class StdevDurationColumn extends AdditionalMetricColumn {
     @DataBoundConstructor
     public StdevDurationColumn() {
         super();
@@ -19,7 +14,7 @@ public class StdevDurationColumn extends ListViewColumn {
 
     @Metric
     public Duration getStdevDuration(Job<? extends Job, ? extends Run> job) {
-        return stdDevDuration(job.getBuilds(), COMPLETED, RUN_DURATION).orElse(null);
+        return metricsOf(job).completedDurations().standardDeviation().orElse(null);
     }
 
     @Extension
@@ -1,17 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.RUN_DURATION;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.SUCCESS;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.stdDevDuration;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class StdevSuccessDurationColumn extends ListViewColumn {
+public class StdevSuccessDurationColumn extends AdditionalMetricColumn {
     @DataBoundConstructor
     public StdevSuccessDurationColumn() {
         super();
@@ -19,7 +14,7 @@ public class StdevSuccessDurationColumn extends ListViewColumn {
 
     @Metric
     public Duration getStdevSuccessDuration(Job<? extends Job, ? extends Run> job) {
-        return stdDevDuration(job.getBuilds(), SUCCESS, RUN_DURATION).orElse(null);
+        return metricsOf(job).successDurations().standardDeviation().orElse(null);
     }
 
     @Extension
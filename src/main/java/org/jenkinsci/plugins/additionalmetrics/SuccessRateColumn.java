@@ -1,17 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.SUCCESS;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.rateOf;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class SuccessRateColumn extends ListViewColumn {
+public class SuccessRateColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public SuccessRateColumn() {
@@ -20,7 +15,7 @@ public class SuccessRateColumn extends ListViewColumn {
 
     @Metric
     public Rate getSuccessRate(Job<? extends Job, ? extends Run> job) {
-        return rateOf(job.getBuilds(), COMPLETED, SUCCESS).orElse(null);
+        return metricsOf(job).successRate().orElse(null);
     }
 
     @Extension
@@ -0,0 +1,47 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * A Jenkins list view column that displays the success rate of the builds of the last days, and its change since
+ * the days before.
+ */
+public class SuccessRateTrendColumn extends TrendColumn {
+
+    /**
+     * Creates a new success rate trend column.
+     * This constructor is used by Jenkins for data binding.
+     */
+    @DataBoundConstructor
+    public SuccessRateTrendColumn() {
+        super();
+    }
+
+    /**
+     * Returns the success rate of the builds of the last days, compared to the days before.
+     *
+     * @param job the job to calculate the trend for
+     * @return the trend, or null if no builds completed over the last days
+     */
+    @Metric
+    public RateTrend getSuccessRateTrend(Job<? extends Job, ? extends Run> job) {
+        Periods periods = periodsOf(job);
+        return periods.current()
+                .successRate()
+                .map(current -> new RateTrend(current, periods.previous().successRate().orElse(null)))
+                .orElse(null);
+    }
+
+    @Extension
+    @Symbol("successRateTrend")
+    public static class DescriptorImpl extends TrendColumnDescriptor {
+
+        public DescriptorImpl() {
+            super(Messages.SuccessRateTrendColumn_DisplayName());
+        }
+    }
+}
@@ -1,17 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.SUCCESS;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.timeRateOf;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class SuccessTimeRateColumn extends ListViewColumn {
+public class SuccessTimeRateColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public SuccessTimeRateColumn() {
@@ -20,7 +15,7 @@ public class SuccessTimeRateColumn extends ListViewColumn {
 
     @Metric
     public Rate getSuccessTimeRate(Job<? extends Job, ? extends Run> job) {
-        return timeRateOf(job.getBuilds(), COMPLETED, SUCCESS).orElse(null);
+        return metricsOf(job).successTimeRate().orElse(null);
     }
 
     @Extension
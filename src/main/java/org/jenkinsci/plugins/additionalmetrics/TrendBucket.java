@@ -0,0 +1,39 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.Optional;
+
+/**
+ * The completed builds of a job started within a time bucket.
+ *
+ * @param start the start time of the bucket
+ * @param builds the number of completed builds
+ * @param successBuilds the number of successful builds
+ * @param totalDuration the sum of the durations of the builds, only counting durations over 0
+ * @param durations the number of durations summed
+ */
+record TrendBucket(long start, int builds, int successBuilds, long totalDuration, int durations) {
+
+    static TrendBucket empty(long start) {
+        return new TrendBucket(start, 0, 0, 0, 0);
+    }
+
+    /**
+     * Returns the builds of both buckets, starting at the start of this one.
+     */
+    TrendBucket plus(TrendBucket other) {
+        return new TrendBucket(
+                start,
+                builds + other.builds,
+                successBuilds + other.successBuilds,
+                totalDuration + other.totalDuration,
+                durations + other.durations);
+    }
+
+    Optional<Rate> successRate() {
+        return builds == 0 ? Optional.empty() : Optional.of(new Rate((double) successBuilds / builds));
+    }
+
+    Optional<Duration> averageDuration() {
+        return durations == 0 ? Optional.empty() : Optional.of(new Duration(totalDuration / durations));
+    }
+}
@@ -0,0 +1,116 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ring buffer of the buckets of one granularity. Each slot holds the bucket of its index modulo the number of
+ * buckets, so a new bucket overwrites the one that just went out of range and memory stays bounded: 28 bytes per
+ * bucket.
+ * <p>
+ * Not thread safe.
+ */
+final class TrendBuckets {
+
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final TrendGranularity granularity;
+    private final long[] indexes;
+    private final int[] builds;
+    private final int[] successBuilds;
+    private final long[] totalDurations;
+    private final int[] durations;
+
+    TrendBuckets(TrendGranularity granularity) {
+        this.granularity = granularity;
+        int size = granularity.getBuckets();
+        this.indexes = new long[size];
+        this.builds = new int[size];
+        this.successBuilds = new int[size];
+        this.totalDurations = new long[size];
+        this.durations = new int[size];
+        Arrays.fill(indexes, UNUSED);
+    }
+
+    /**
+     * Adds a completed build, unless it is older than the oldest bucket kept.
+     *
+     * @param timestamp the time the build started at
+     * @param success whether the build was successful
+     * @param duration the duration of the build
+     * @param now the current time
+     */
+    void add(long timestamp, boolean success, long duration, long now) {
+        long index = granularity.indexOf(timestamp);
+        if (index <= granularity.indexOf(now) - indexes.length) {
+            return;
+        }
+
+        int slot = slotOf(index);
+        if (indexes[slot] != index) {
+            if (indexes[slot] > index) {
+                // overwritten by a newer bucket
+                return;
+            }
+            indexes[slot] = index;
+            builds[slot] = 0;
+            successBuilds[slot] = 0;
+            totalDurations[slot] = 0;
+            durations[slot] = 0;
+        }
+        apply(slot, success, duration, 1);
+    }
+
+    /**
+     * Removes a build previously added, unless its bucket is no longer kept.
+     */
+    void remove(long timestamp, boolean success, long duration) {
+        long index = granularity.indexOf(timestamp);
+        int slot = slotOf(index);
+        if (indexes[slot] == index) {
+            apply(slot, success, duration, -1);
+        }
+    }
+
+    private void apply(int slot, boolean success, long duration, int sign) {
+        builds[slot] += sign;
+        if (success) {
+            successBuilds[slot] += sign;
+        }
+        if (duration > 0) {
+            totalDurations[slot] += sign * duration;
+            durations[slot] += sign;
+        }
+    }
+
+    /**
+     * Returns the most recent buckets, oldest first, the last one being the bucket of the current time.
+     *
+     * @param count the number of buckets, at most the number of buckets kept
+     * @param now the current time
+     * @return the buckets, empty ones included
+     */
+    List<TrendBucket> series(int count, long now) {
+        int size = Math.min(count, indexes.length);
+        long newest = granularity.indexOf(now);
+        List<TrendBucket> result = new ArrayList<>(size);
+        for (long index = newest - size + 1; index <= newest; index++) {
+            result.add(bucket(index));
+        }
+        return result;
+    }
+
+    private TrendBucket bucket(long index) {
+        int slot = slotOf(index);
+        if (indexes[slot] != index) {
+            return TrendBucket.empty(granularity.startOf(index));
+        }
+        return new TrendBucket(
+                granularity.startOf(index), builds[slot], successBuilds[slot], totalDurations[slot], durations[slot]);
+    }
+
+    private int slotOf(long index) {
+        return Math.floorMod(index, indexes.length);
+    }
+}
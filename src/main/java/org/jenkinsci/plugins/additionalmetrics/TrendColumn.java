@@ -0,0 +1,55 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.Job;
+import hudson.views.ListViewColumn;
+import java.util.List;
+import org.jenkinsci.plugins.additionalmetrics.MetricsInstrumentation.Operation;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Abstract base class for columns comparing the builds of the last days to the ones of the days before.
+ * Builds are read from the daily buckets of the {@link TrendStore}, the current day counting as one of the last days.
+ */
+public abstract class TrendColumn extends ListViewColumn {
+
+    static final int DEFAULT_DAYS = 7;
+    static final int MAX_DAYS = TrendGranularity.DAY.getBuckets() / 2;
+
+    private int days = DEFAULT_DAYS;
+
+    /**
+     * Returns the number of days of each compared period.
+     *
+     * @return the number of days
+     */
+    public int getDays() {
+        return days;
+    }
+
+    @DataBoundSetter
+    public void setDays(int days) {
+        this.days = days > 0 ? Math.min(days, MAX_DAYS) : DEFAULT_DAYS;
+    }
+
+    /**
+     * Returns the builds of the last days, and the ones of the days before.
+     */
+    Periods periodsOf(Job<?, ?> job) {
+        return MetricsInstrumentation.get().measure(Operation.COLUMN, () -> computePeriodsOf(job));
+    }
+
+    private Periods computePeriodsOf(Job<?, ?> job) {
+        List<TrendBucket> buckets = TrendStore.get().seriesOf(job, TrendGranularity.DAY, 2 * days);
+        TrendBucket previous = TrendBucket.empty(buckets.get(0).start());
+        for (TrendBucket bucket : buckets.subList(0, days)) {
+            previous = previous.plus(bucket);
+        }
+        TrendBucket current = TrendBucket.empty(buckets.get(days).start());
+        for (TrendBucket bucket : buckets.subList(days, buckets.size())) {
+            current = current.plus(bucket);
+        }
+        return new Periods(current, previous);
+    }
+
+    record Periods(TrendBucket current, TrendBucket previous) {}
+}
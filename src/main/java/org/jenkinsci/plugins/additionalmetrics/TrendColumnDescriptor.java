@@ -0,0 +1,33 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.views.ListViewColumnDescriptor;
+
+/**
+ * Abstract base class for trend column descriptors, see {@link TrendColumn}.
+ * Trend columns are not shown by default in list views.
+ */
+abstract class TrendColumnDescriptor extends ListViewColumnDescriptor {
+
+    private final String displayName;
+
+    /**
+     * Creates a new trend column descriptor with the specified display name.
+     *
+     * @param displayName the human-readable name for this column type
+     */
+    TrendColumnDescriptor(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public boolean shownByDefault() {
+        return false;
+    }
+
+    @NonNull
+    @Override
+    public String getDisplayName() {
+        return displayName;
+    }
+}
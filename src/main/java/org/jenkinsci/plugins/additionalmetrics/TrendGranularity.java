@@ -0,0 +1,67 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The granularities of the builds aggregated over time, by the name they are exposed with through the REST API.
+ * Each one keeps a fixed number of buckets, aligned on UTC boundaries, the newest one being the current, partial one.
+ */
+enum TrendGranularity {
+    HOUR("hour", TimeUnit.HOURS.toMillis(1), 48),
+    DAY("day", TimeUnit.DAYS.toMillis(1), 60),
+    WEEK("week", TimeUnit.DAYS.toMillis(7), 26);
+
+    private static final Map<String, TrendGranularity> BY_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(TrendGranularity::getName, Function.identity()));
+
+    private final String name;
+    private final long millis;
+    private final int buckets;
+
+    TrendGranularity(String name, long millis, int buckets) {
+        this.name = name;
+        this.millis = millis;
+        this.buckets = buckets;
+    }
+
+    static Optional<TrendGranularity> byName(String name) {
+        return Optional.ofNullable(BY_NAME.get(name));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of buckets kept.
+     */
+    int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Returns the index, since the epoch, of the bucket of the given time.
+     */
+    long indexOf(long timeMillis) {
+        return Math.floorDiv(timeMillis, millis);
+    }
+
+    /**
+     * Returns the start time of the bucket of the given index.
+     */
+    long startOf(long index) {
+        return index * millis;
+    }
+
+    /**
+     * Returns the start time of the oldest bucket kept at the given time.
+     */
+    long oldestStart(long now) {
+        return startOf(indexOf(now) - buckets + 1);
+    }
+}
@@ -0,0 +1,223 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.RUN_DURATION;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.SUCCESS;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the builds of each job aggregated in time buckets of every {@link TrendGranularity}, up to date as runs
+ * complete or get deleted.
+ * <p>
+ * The buckets of a job are filled the first time they are requested after startup, from the builds recent enough
+ * for the oldest bucket kept: read from the {@link BuildIndex} if the job is indexed, from the runs within the
+ * computation budget otherwise, in which case buckets left partial by the budget are filled again by the next request.
+ * From then on, completed and deleted runs are applied incrementally, and buckets going out of range are overwritten,
+ * so about 4 KB are kept per job whatever its history.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class TrendStore extends RunListener<Run<?, ?>> {
+
+    // weak keys: deleted jobs are dropped, renamed jobs keep their state
+    private final Map<Job<?, ?>, State> states = new WeakHashMap<>();
+
+    static TrendStore get() {
+        return ExtensionList.lookupSingleton(TrendStore.class);
+    }
+
+    /**
+     * Returns the most recent buckets of a job.
+     *
+     * @param job the job
+     * @param granularity the granularity of the buckets
+     * @param count the number of buckets, at most {@link TrendGranularity#getBuckets()}
+     * @return the buckets, oldest first, the last one being the current one
+     */
+    List<TrendBucket> seriesOf(Job<?, ?> job, TrendGranularity granularity, int count) {
+        State state;
+        synchronized (states) {
+            state = states.computeIfAbsent(job, j -> new State());
+        }
+
+        long now = System.currentTimeMillis();
+        boolean filling;
+        synchronized (state) {
+            if (state.buckets != null) {
+                return state.buckets.series(granularity, count, now);
+            }
+            // events of this job are recorded while the first request fills the buckets, and applied afterwards
+            filling = state.pending == null;
+            if (filling) {
+                state.pending = new ArrayList<>();
+            }
+        }
+
+        // outside of the lock, so that events of this job do not wait for it, concurrent requests filling their own
+        Buckets buckets = null;
+        try {
+            buckets = Buckets.fill(job, now);
+        } finally {
+            if (filling) {
+                synchronized (state) {
+                    state.filled(buckets);
+                }
+            }
+        }
+        synchronized (state) {
+            return buckets.series(granularity, count, now);
+        }
+    }
+
+    @Override
+    public void onCompleted(Run<?, ?> run, @NonNull TaskListener listener) {
+        update(run, true);
+    }
+
+    @Override
+    public void onDeleted(Run<?, ?> run) {
+        update(run, false);
+    }
+
+    private void update(Run<?, ?> run, boolean completed) {
+        State state;
+        synchronized (states) {
+            state = states.get(run.getParent());
+        }
+        if (state == null) {
+            return;
+        }
+
+        Consumer<Buckets> event = buckets -> buckets.apply(run, completed, System.currentTimeMillis());
+        synchronized (state) {
+            if (state.buckets != null) {
+                event.accept(state.buckets);
+            } else if (state.pending != null) {
+                state.pending.add(event);
+            }
+        }
+    }
+
+    private static final class State {
+        private Buckets buckets;
+        // events received while the buckets are filled, null otherwise
+        private List<Consumer<Buckets>> pending;
+
+        void filled(Buckets filled) {
+            List<Consumer<Buckets>> events = pending;
+            pending = null;
+            if (filled != null && filled.complete) {
+                buckets = filled;
+                events.forEach(event -> event.accept(filled));
+            }
+        }
+    }
+
+    /**
+     * The buckets of every granularity of a job.
+     */
+    private static final class Buckets {
+        private final Map<TrendGranularity, TrendBuckets> byGranularity = new EnumMap<>(TrendGranularity.class);
+        private int filledUpTo;
+        private final Set<Integer> building = new HashSet<>();
+        private boolean complete = true;
+
+        static Buckets fill(Job<?, ?> job, long now) {
+            Buckets buckets = new Buckets();
+            long oldestStart = Long.MAX_VALUE;
+            for (TrendGranularity granularity : TrendGranularity.values()) {
+                buckets.byGranularity.put(granularity, new TrendBuckets(granularity));
+                oldestStart = Math.min(oldestStart, granularity.oldestStart(now));
+            }
+
+            // runs scheduled before the oldest bucket but started within it are left out
+            int lastNumber = job.getNextBuildNumber() - 1;
+            Optional<List<BuildIndex.Entry>> entries = BuildIndex.get().entriesSince(job, oldestStart);
+            if (entries.isPresent()) {
+                buckets.fillFromIndex(entries.get(), lastNumber, now);
+            } else {
+                buckets.fillFromRuns(job, oldestStart, lastNumber, now);
+            }
+            return buckets;
+        }
+
+        private void fillFromIndex(List<BuildIndex.Entry> entries, int lastNumber, long now) {
+            // runs not indexed yet are added once completed
+            filledUpTo = entries.isEmpty() ? lastNumber : entries.get(0).number();
+            for (BuildIndex.Entry entry : entries) {
+                if (entry.building()) {
+                    building.add(entry.number());
+                } else {
+                    add(entry.startTime(), entry.isSuccess(), entry.duration(), now);
+                }
+            }
+        }
+
+        private void fillFromRuns(Job<?, ?> job, long oldestStart, int lastNumber, long now) {
+            // runs started meanwhile are added once completed
+            filledUpTo = lastNumber;
+            ComputationBudget.Spending spending = AdditionalMetricsConfiguration.get().getComputationBudget().start();
+            int read = 0;
+            for (Run<?, ?> run : job.getBuilds().byTimestamp(oldestStart, Long.MAX_VALUE)) {
+                if (run.getNumber() > filledUpTo) {
+                    continue;
+                }
+                if (!COMPLETED.test(run)) {
+                    building.add(run.getNumber());
+                } else if (spending.exceededBy(read) != null) {
+                    complete = false;
+                    return;
+                } else {
+                    read++;
+                    add(run.getStartTimeInMillis(), SUCCESS.test(run), RUN_DURATION.applyAsLong(run), now);
+                }
+            }
+        }
+
+        List<TrendBucket> series(TrendGranularity granularity, int count, long now) {
+            return byGranularity.get(granularity).series(count, now);
+        }
+
+        void apply(Run<?, ?> run, boolean completed, long now) {
+            // runs building while the buckets were filled were not added yet
+            boolean pending = building.remove(run.getNumber());
+            if (completed) {
+                if (pending || run.getNumber() > filledUpTo) {
+                    add(run.getStartTimeInMillis(), SUCCESS.test(run), RUN_DURATION.applyAsLong(run), now);
+                }
+            } else if (!pending && COMPLETED.test(run)) {
+                remove(run.getStartTimeInMillis(), SUCCESS.test(run), RUN_DURATION.applyAsLong(run));
+            }
+        }
+
+        private void add(long startTime, boolean success, long duration, long now) {
+            for (TrendBuckets granularityBuckets : byGranularity.values()) {
+                granularityBuckets.add(startTime, success, duration, now);
+            }
+        }
+
+        private void remove(long startTime, boolean success, long duration) {
+            for (TrendBuckets granularityBuckets : byGranularity.values()) {
+                granularityBuckets.remove(startTime, success, duration);
+            }
+        }
+    }
+}
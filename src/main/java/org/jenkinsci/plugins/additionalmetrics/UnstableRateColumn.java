@@ -1,17 +1,12 @@
 package org.jenkinsci.plugins.additionalmetrics;
 
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
-import static org.jenkinsci.plugins.additionalmetrics.Helpers.UNSTABLE;
-import static org.jenkinsci.plugins.additionalmetrics.Utils.rateOf;
-
 import hudson.Extension;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.views.ListViewColumn;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-public class UnstableRateColumn extends ListViewColumn {
+public class UnstableRateColumn extends AdditionalMetricColumn {
 
     @DataBoundConstructor
     public UnstableRateColumn() {
@@ -20,7 +15,7 @@ public class UnstableRateColumn extends ListViewColumn {
 
     @Metric
     public Rate getUnstableRate(Job<? extends Job, ? extends Run> job) {
-        return rateOf(job.getBuilds(), COMPLETED, UNSTABLE).orElse(null);
+        return metricsOf(job).unstableRate().orElse(null);
     }
 
     @Extension
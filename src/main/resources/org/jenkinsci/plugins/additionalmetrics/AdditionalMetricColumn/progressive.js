@@ -0,0 +1,54 @@
+(function () {
+  function render(cell, result) {
+    cell.classList.remove("additional-metrics-cell");
+    cell.setAttribute("data", result.data);
+    if (result.text !== undefined) {
+      cell.textContent = result.text;
+    } else {
+      cell.textContent = result.pending !== undefined ? result.pending : cell.dataset.metricsNa;
+    }
+    if (result.partial) {
+      const marker = document.createElement("span");
+      marker.className = "additional-metrics-partial";
+      marker.setAttribute("tooltip", result.partial);
+      marker.textContent = "\u2248";
+      cell.prepend(marker, " ");
+      Behaviour.applySubtree(cell, true);
+    }
+    if (result.build) {
+      const link = document.createElement("a");
+      link.href = document.head.dataset.rooturl + "/" + result.build.url;
+      link.className = "model-link inside";
+      link.textContent = result.build.displayName;
+      cell.append(" - ", link);
+    }
+  }
+
+  function load() {
+    // all the cells of the page are fetched at once
+    const cells = Array.from(document.querySelectorAll("td.additional-metrics-cell"));
+    if (cells.length === 0) {
+      return;
+    }
+    const request = cells.map((cell) => ({
+      item: cell.dataset.metricsItem,
+      column: cell.dataset.metricsColumn,
+      maxBuilds: Number(cell.dataset.metricsMaxBuilds),
+      maxDays: Number(cell.dataset.metricsMaxDays),
+    }));
+    fetch(document.head.dataset.rooturl + "/additional-metrics/cells", {
+      method: "POST",
+      headers: crumb.wrap({ "Content-Type": "application/json" }),
+      body: JSON.stringify({ cells: request }),
+    })
+      .then((rsp) => (rsp.ok ? rsp.json() : Promise.reject(new Error(rsp.statusText))))
+      .then((json) => json.cells.forEach((result, i) => render(cells[i], result)))
+      .catch(() => cells.forEach((cell) => render(cell, { data: 0 })));
+  }
+
+  if (document.readyState === "loading") {
+    document.addEventListener("DOMContentLoaded", load);
+  } else {
+    load();
+  }
+})();
@@ -0,0 +1,42 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the single traversal computing all metrics, sequentially and on the {@link MetricsExecutor}, and of
+ * reading the runs into a {@link RunHistory} beforehand.
+ */
+@State(Scope.Benchmark)
+public class AggregatedMetricsBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int runs;
+
+    @Param({"0", "2", "4"})
+    public int parallelism;
+
+    private List<FakeRuns.FakeRun> history;
+    private MetricsExecutor executor;
+
+    @Setup
+    public void setUp() {
+        history = FakeRuns.history(runs);
+        executor = new MetricsExecutor(() -> parallelism, () -> 100);
+    }
+
+    @Benchmark
+    public void compute(Blackhole blackhole) {
+        blackhole.consume(AggregatedMetrics.compute(history, false, executor));
+    }
+
+    @Benchmark
+    public void readHistory(Blackhole blackhole) {
+        blackhole.consume(RunHistory.of(history, false, executor));
+    }
+}
@@ -0,0 +1,127 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.COMPLETED;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.RUN_DURATION;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.SUCCESS;
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.UNSTABLE;
+import static org.jenkinsci.plugins.additionalmetrics.Utils.MAX;
+import static org.jenkinsci.plugins.additionalmetrics.Utils.MIN;
+import static org.jenkinsci.plugins.additionalmetrics.Utils.NOT_SUCCESS;
+import static org.jenkinsci.plugins.additionalmetrics.Utils.RUN_CHECKOUT_DURATION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.Run;
+import java.util.List;
+import java.util.Optional;
+import org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class AggregatedMetricsTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void single_pass_should_match_per_metric_computations() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(StepDefinitions.SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(StepDefinitions.FAILURE)
+                .schedule()
+                .configurePipelineDefinition(StepDefinitions.UNSTABLE)
+                .schedule()
+                .configurePipelineDefinition(StepDefinitions.SLOW_3S)
+                .schedule();
+
+        List<? extends Run> runs = runner.getJob().getBuilds();
+        AggregatedMetrics metrics = AggregatedMetrics.compute(runs, true);
+
+        assertEquals(Utils.rateOf(runs, COMPLETED, SUCCESS), metrics.successRate());
+        assertEquals(Utils.rateOf(runs, COMPLETED, NOT_SUCCESS), metrics.failureRate());
+        assertEquals(Utils.rateOf(runs, COMPLETED, UNSTABLE), metrics.unstableRate());
+
+        assertEquals(Utils.averageDuration(runs, COMPLETED, RUN_DURATION), metrics.completedDurations().average());
+        assertEquals(Utils.averageDuration(runs, SUCCESS, RUN_DURATION), metrics.successDurations().average());
+        assertEquals(
+                Utils.averageDuration(runs, COMPLETED, RUN_CHECKOUT_DURATION), metrics.checkoutDurations().average());
+
+        assertEquals(
+                Utils.stdDevDuration(runs, COMPLETED, RUN_DURATION), metrics.completedDurations().standardDeviation());
+        assertEquals(
+                Utils.stdDevDuration(runs, SUCCESS, RUN_DURATION), metrics.successDurations().standardDeviation());
+
+        assertEquals(Utils.findRun(runs, COMPLETED, RUN_DURATION, MIN), metrics.completedDurations().shortest());
+        assertEquals(Utils.findRun(runs, COMPLETED, RUN_DURATION, MAX), metrics.completedDurations().longest());
+        assertEquals(Utils.findRun(runs, SUCCESS, RUN_DURATION, MIN), metrics.successDurations().shortest());
+        assertEquals(Utils.findRun(runs, SUCCESS, RUN_DURATION, MAX), metrics.successDurations().longest());
+    }
+
+    @Test
+    void extreme_durations_should_outlive_their_runs() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(StepDefinitions.SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(StepDefinitions.SLOW_3S)
+                .schedule();
+
+        AggregatedMetrics metrics = AggregatedMetrics.compute(runner.getJob().getBuilds(), false);
+        Duration longest = metrics.completedDurations().longest().orElseThrow().duration();
+        runner.getRuns()[1].delete();
+
+        assertEquals(Optional.empty(), metrics.completedDurations().longest());
+        assertEquals(longest.getAsLong(), metrics.completedDurations().longestDuration().orElseThrow().getAsLong());
+    }
+
+    @Test
+    void exceeded_run_budget_should_aggregate_the_most_recent_runs_only() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(StepDefinitions.SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(StepDefinitions.FAILURE)
+                .schedule()
+                .configurePipelineDefinition(StepDefinitions.SUCCESS)
+                .schedule();
+
+        AggregatedMetrics metrics =
+                AggregatedMetrics.compute(runner.getJob().getBuilds(), false, new ComputationBudget(2, 0));
+
+        assertTrue(metrics.isPartial());
+        assertEquals(Optional.of(ComputationBudget.Limit.RUNS), metrics.exceededBudget());
+        assertEquals(2, metrics.completedRuns());
+        assertEquals(Optional.of(new Rate(0.5)), metrics.successRate());
+    }
+
+    @Test
+    void budget_of_all_runs_should_not_be_exceeded() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(StepDefinitions.SUCCESS)
+                .schedule()
+                .schedule();
+
+        AggregatedMetrics metrics =
+                AggregatedMetrics.compute(runner.getJob().getBuilds(), false, new ComputationBudget(2, 60_000));
+
+        assertFalse(metrics.isPartial());
+        assertEquals(2, metrics.completedRuns());
+    }
+
+    @Test
+    void checkout_durations_should_not_be_available_unless_requested() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule);
+
+        AggregatedMetrics metrics = AggregatedMetrics.compute(runner.getJob().getBuilds(), false);
+
+        assertThrows(IllegalStateException.class, metrics::checkoutDurations);
+    }
+}
@@ -125,4 +125,29 @@ class AvgDurationColumnTest {
         assertThat(text).containsAnyOf(TIME_UNITS);
         assertThat(Long.parseLong(dataOf(columnNode))).isGreaterThan(0L);
     }
+
+    @Test
+    void partial_avg_duration_should_be_marked_in_UI() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .schedule();
+
+        ListView listView =
+                createAndAddListView(jenkinsRule.getInstance(), "MyListPartial", avgDurationColumn, runner.getJob());
+
+        DomNode columnNode;
+        AdditionalMetricsConfiguration.get().setRunBudget(1);
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    runner.getJob().getName(),
+                    avgDurationColumn.getColumnCaption());
+        } finally {
+            AdditionalMetricsConfiguration.get().setRunBudget(0);
+        }
+
+        assertThat(columnNode.asNormalizedText()).startsWith("\u2248").containsAnyOf(TIME_UNITS);
+    }
 }
@@ -0,0 +1,100 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.jenkinsci.plugins.additionalmetrics.UIHelpers.*;
+import static org.jenkinsci.plugins.additionalmetrics.Utilities.TIME_UNITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import hudson.model.ListView;
+import org.htmlunit.html.DomNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class AvgDurationTrendColumnTest {
+
+    private AvgDurationTrendColumn avgDurationTrendColumn;
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void before() {
+        avgDurationTrendColumn = new AvgDurationTrendColumn();
+    }
+
+    @Test
+    void recent_runs_without_previous_ones_should_have_no_change() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        DurationTrend averageDurationTrend = avgDurationTrendColumn.getAverageDurationTrend(runner.getJob());
+
+        long expected = (runner.getRuns()[0].getDuration() + runner.getRuns()[1].getDuration()) / 2;
+        assertEquals(expected, averageDurationTrend.current().getAsLong());
+        assertNull(averageDurationTrend.previous());
+        assertNull(averageDurationTrend.getChange());
+    }
+
+    @Test
+    void change_should_be_relative_to_the_previous_duration() {
+        DurationTrend averageDurationTrend = new DurationTrend(new Duration(900), new Duration(1_000));
+
+        assertEquals(-0.1, averageDurationTrend.getChange(), 0.0001);
+        assertThat(averageDurationTrend.getAsString()).endsWith(" (-10.00%)");
+    }
+
+    @Test
+    void no_runs_should_display_as_NA_in_UI() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule);
+
+        ListView listView = createAndAddListView(
+                jenkinsRule.getInstance(), "MyListNoRuns", avgDurationTrendColumn, runner.getJob());
+
+        DomNode columnNode;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    runner.getJob().getName(),
+                    avgDurationTrendColumn.getColumnCaption());
+        }
+
+        assertEquals("N/A", columnNode.asNormalizedText());
+        assertEquals("0", dataOf(columnNode));
+    }
+
+    @Test
+    void one_run_should_display_avg_duration_in_UI() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        ListView listView = createAndAddListView(
+                jenkinsRule.getInstance(), "MyListOneRun", avgDurationTrendColumn, runner.getJob());
+
+        DomNode columnNode;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    runner.getJob().getName(),
+                    avgDurationTrendColumn.getColumnCaption());
+        }
+
+        assertThat(columnNode.asNormalizedText()).containsAnyOf(TIME_UNITS);
+        assertThat(Long.parseLong(dataOf(columnNode))).isGreaterThan(0L);
+    }
+}
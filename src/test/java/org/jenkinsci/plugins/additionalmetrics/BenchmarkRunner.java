@@ -0,0 +1,37 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks, only when the {@code benchmark} profile is active: {@code mvn test -Dbenchmark}.
+ * Results are written to {@code target/jmh-report.json}.
+ */
+class BenchmarkRunner {
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = ".*")
+    void runJmhBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(UtilsBenchmark.class.getName())
+                .include(AggregatedMetricsBenchmark.class.getName())
+                .include(CheckoutDurationBenchmark.class.getName())
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .measurementIterations(3)
+                .forks(1)
+                .shouldFailOnError(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-report.json")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,80 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import hudson.model.Result;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuildIndexFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void records_should_be_read_in_the_order_they_were_appended() throws IOException {
+        BuildIndexFile file = new BuildIndexFile(directory.resolve(BuildIndexFile.NAME));
+        file.rewrite(List.of(entry(1, 100), entry(2, 200)));
+        file.append(entry(3, 300));
+        file.appendTombstone(1);
+        file.append(entry(2, 250));
+
+        Map<Integer, BuildIndex.Entry> builds = new TreeMap<>();
+        BuildIndexFile.Contents contents = file.read(entry -> builds.put(entry.number(), entry), builds::remove);
+
+        assertEquals(new BuildIndexFile.Contents(5, true), contents);
+        assertEquals(List.of(entry(2, 250), entry(3, 300)), new ArrayList<>(builds.values()));
+    }
+
+    @Test
+    void rewriting_should_drop_replaced_records_and_tombstones() throws IOException {
+        BuildIndexFile file = new BuildIndexFile(directory.resolve(BuildIndexFile.NAME));
+        file.rewrite(List.of(entry(1, 100)));
+        file.append(entry(1, 150));
+        file.appendTombstone(1);
+
+        file.rewrite(List.of(entry(2, 200)));
+
+        List<BuildIndex.Entry> builds = new ArrayList<>();
+        assertEquals(new BuildIndexFile.Contents(1, true), file.read(builds::add, number -> fail()));
+        assertEquals(List.of(entry(2, 200)), builds);
+    }
+
+    @Test
+    void partially_written_record_should_be_ignored() throws IOException {
+        Path path = directory.resolve(BuildIndexFile.NAME);
+        BuildIndexFile file = new BuildIndexFile(path);
+        file.rewrite(List.of(entry(1, 100)));
+        Files.write(path, new byte[] {0, 0, 0, 2}, StandardOpenOption.APPEND);
+
+        List<BuildIndex.Entry> builds = new ArrayList<>();
+        assertEquals(new BuildIndexFile.Contents(1, false), file.read(builds::add, number -> fail()));
+        assertEquals(List.of(entry(1, 100)), builds);
+    }
+
+    @Test
+    void missing_or_unknown_file_should_not_be_read() throws IOException {
+        Path path = directory.resolve(BuildIndexFile.NAME);
+        BuildIndexFile file = new BuildIndexFile(path);
+
+        assertFalse(file.exists());
+        assertThrows(NoSuchFileException.class, () -> file.read(entry -> fail(), number -> fail()));
+
+        Files.writeString(path, "<?xml version='1.1'?>");
+        assertThrows(IOException.class, () -> file.read(entry -> fail(), number -> fail()));
+    }
+
+    private static BuildIndex.Entry entry(int number, long duration) {
+        return new BuildIndex.Entry(
+                number, number * 1000L, number * 1000L + 1, duration, (byte) Result.SUCCESS.ordinal, false, 10);
+    }
+}
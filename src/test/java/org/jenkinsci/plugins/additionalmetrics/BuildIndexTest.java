@@ -0,0 +1,176 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class BuildIndexTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void indexed_runs_should_match_the_runs() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(UNSTABLE)
+                .schedule();
+
+        assertSameMetrics(runner, BuildWindow.UNBOUNDED);
+        assertSameMetrics(runner, new BuildWindow(2, 0));
+        assertSameMetrics(runner, new BuildWindow(0, 1));
+    }
+
+    @Test
+    void completed_and_deleted_runs_should_be_applied_incrementally() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        awaitIndexed(runner);
+
+        runner.configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        runner.getRuns()[0].delete();
+
+        assertSameMetrics(runner, BuildWindow.UNBOUNDED);
+        assertEquals(2, indexedMetricsOf(runner, BuildWindow.UNBOUNDED).completedRuns());
+    }
+
+    @Test
+    void run_budget_should_apply_to_indexed_runs() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        awaitIndexed(runner);
+
+        AggregatedMetrics metrics =
+                AggregatedMetrics.compute(runner.getJob(), BuildWindow.UNBOUNDED, false, new ComputationBudget(1, 0));
+
+        assertTrue(metrics.isPartial());
+        assertEquals(1, metrics.completedRuns());
+        assertEquals(Optional.of(new Rate(0.0)), metrics.successRate());
+    }
+
+    @Test
+    void checkout_durations_should_be_indexed() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(CHECKOUT)
+                .schedule()
+                .schedule();
+        awaitIndexed(runner);
+
+        AggregatedMetrics indexed = AggregatedMetrics.compute(
+                runner.getJob(), BuildWindow.UNBOUNDED, true, ComputationBudget.UNLIMITED);
+        AggregatedMetrics read = AggregatedMetrics.compute(BuildWindow.UNBOUNDED.runsOf(runner.getJob()), true);
+
+        assertEquals(2, indexed.checkoutDurations().count());
+        assertEquals(read.checkoutDurations().average(), indexed.checkoutDurations().average());
+    }
+
+    @Test
+    void index_should_be_read_back_from_the_job_directory() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        awaitIndexed(runner);
+        runner.getRuns()[1].delete();
+        runner.configurePipelineDefinition(UNSTABLE).schedule();
+
+        assertTrue(new File(runner.getJob().getRootDir(), BuildIndexFile.NAME).exists());
+
+        // as after a restart
+        BuildIndex restarted = new BuildIndex();
+        RunHistory history = awaitIndexed(restarted, runner);
+        assertEquals(2, history.size());
+        assertEquals(3, history.number(0));
+        assertTrue(history.isUnstable(0));
+        assertEquals(1, history.number(1));
+        assertTrue(history.isSuccess(1));
+    }
+
+    @Test
+    void index_read_back_should_be_reconciled_with_the_build_directories() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .schedule()
+                .configurePipelineDefinition(UNSTABLE)
+                .schedule();
+        awaitIndexed(runner);
+        runner.getRuns()[2].delete();
+
+        // build 2 missing, as if interrupted by a restart, and build 3 still there, as if deleted while not running
+        BuildIndex.Entry first = BuildIndex.Entry.of(runner.getRuns()[0]);
+        BuildIndex.Entry deleted = new BuildIndex.Entry(
+                3, first.timestamp(), first.startTime(), first.duration(), first.result(), false, -1);
+        BuildIndexFile.of(runner.getJob()).rewrite(List.of(first, deleted, BuildIndex.Entry.of(runner.getRuns()[3])));
+
+        // as after a restart
+        RunHistory history = awaitIndexed(new BuildIndex(), runner);
+        assertEquals(3, history.size());
+        assertEquals(4, history.number(0));
+        assertEquals(2, history.number(1));
+        assertFalse(history.isSuccess(1));
+        assertEquals(1, history.number(2));
+    }
+
+    private static void assertSameMetrics(JobRunner.WorkflowBuilder runner, BuildWindow window) throws Exception {
+        AggregatedMetrics indexed = indexedMetricsOf(runner, window);
+        AggregatedMetrics read = AggregatedMetrics.compute(window.runsOf(runner.getJob()), false);
+
+        assertFalse(indexed.isPartial());
+        assertEquals(read.completedRuns(), indexed.completedRuns());
+        assertEquals(read.successRate(), indexed.successRate());
+        assertEquals(read.unstableRate(), indexed.unstableRate());
+        assertEquals(read.completedDurations().average(), indexed.completedDurations().average());
+        assertEquals(read.successDurations().longest(), indexed.successDurations().longest());
+    }
+
+    private static AggregatedMetrics indexedMetricsOf(JobRunner.WorkflowBuilder runner, BuildWindow window)
+            throws Exception {
+        awaitIndexed(runner);
+        return AggregatedMetrics.compute(runner.getJob(), window, false, ComputationBudget.UNLIMITED);
+    }
+
+    private static void awaitIndexed(JobRunner.WorkflowBuilder runner) throws Exception {
+        awaitIndexed(BuildIndex.get(), runner);
+    }
+
+    private static RunHistory awaitIndexed(BuildIndex index, JobRunner.WorkflowBuilder runner) throws Exception {
+        // indexed in the background on first request
+        for (int i = 0; i < 100; i++) {
+            Optional<RunHistory> history =
+                    index.historyOf(runner.getJob(), BuildWindow.UNBOUNDED, false, ComputationBudget.UNLIMITED);
+            if (history.isPresent()) {
+                return history.get();
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Builds of " + runner.getJob().getFullName() + " not indexed");
+    }
+}
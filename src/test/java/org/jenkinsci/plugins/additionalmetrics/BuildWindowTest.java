@@ -0,0 +1,87 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class BuildWindowTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @AfterEach
+    void resetGlobalWindow() {
+        AdditionalMetricsConfiguration.get().setMaxBuilds(0);
+        AdditionalMetricsConfiguration.get().setMaxDays(0);
+    }
+
+    @Test
+    void column_window_should_only_consider_most_recent_builds() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        SuccessRateColumn successRateColumn = new SuccessRateColumn();
+        successRateColumn.setMaxBuilds(1);
+
+        Rate successRate = successRateColumn.getSuccessRate(runner.getJob());
+
+        assertEquals(1.0, successRate.getAsDouble(), 0);
+    }
+
+    @Test
+    void global_window_should_apply_to_columns_without_their_own() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        AdditionalMetricsConfiguration.get().setMaxBuilds(1);
+
+        assertNull(new AvgSuccessDurationColumn().getAverageSuccessDuration(runner.getJob()));
+        assertEquals(0.0, new JobMetrics(runner.getJob()).getSuccessRate(), 0);
+    }
+
+    @Test
+    void column_window_should_take_precedence_over_global_window() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        AdditionalMetricsConfiguration.get().setMaxBuilds(1);
+        FailureRateColumn failureRateColumn = new FailureRateColumn();
+        failureRateColumn.setMaxBuilds(2);
+
+        Rate failureRate = failureRateColumn.getFailureRate(runner.getJob());
+
+        assertEquals(0.5, failureRate.getAsDouble(), 0);
+    }
+
+    @Test
+    void age_window_should_include_recent_builds() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        SuccessRateColumn successRateColumn = new SuccessRateColumn();
+        successRateColumn.setMaxDays(1);
+
+        assertEquals(1.0, successRateColumn.getSuccessRate(runner.getJob()).getAsDouble(), 0);
+    }
+}
@@ -0,0 +1,100 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import java.util.Set;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.jenkinsci.plugins.workflow.actions.TimingAction;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.FlowGraphWalker;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.scm.GenericSCMStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the scan of large flow graphs for checkout steps, against the walk of the whole graph it replaced.
+ * Graphs are the ones of a matrix like pipeline, with many parallel branches of a few steps each, among which
+ * configured checkout steps with and without a body. Flow graphs only exist within a Jenkins instance.
+ */
+public class CheckoutDurationBenchmark {
+
+    private static final Set<String> CHECKOUT_STEP_IDS =
+            Set.of("org.jenkinsci.plugins.workflow.steps.PushdStep", "org.jenkinsci.plugins.workflow.steps.SleepStep");
+
+    @State(Scope.Benchmark)
+    public static class PipelineState extends JmhBenchmarkState {
+
+        @Param({"100", "1000"})
+        public int branches;
+
+        FlowExecution execution;
+
+        @Override
+        public void setup() throws Exception {
+            WorkflowJob job = getJenkins().createProject(WorkflowJob.class, "matrix");
+            job.setDefinition(new CpsFlowDefinition(matrixPipeline(branches), true));
+            execution = job.scheduleBuild2(0).get().getExecution();
+        }
+    }
+
+    @Benchmark
+    public long flowGraphWalker(PipelineState state) {
+        return walkCheckoutDuration(state.execution);
+    }
+
+    @Benchmark
+    public long depthFirstScanner(PipelineState state) {
+        return CheckoutDuration.countCheckoutDuration(state.execution, 0, CHECKOUT_STEP_IDS).duration();
+    }
+
+    @Benchmark
+    public long depthFirstScannerWithBudget(PipelineState state) {
+        return CheckoutDuration.countCheckoutDuration(state.execution, 1000, CHECKOUT_STEP_IDS).duration();
+    }
+
+    private static String matrixPipeline(int branches) {
+        return "def branches = [:]\n"
+                + "for (int i = 0; i < " + branches + "; i++) {\n"
+                + "    def index = i\n"
+                + "    branches[\"branch-${index}\"] = {\n"
+                + "        stage(\"stage-${index}\") {\n"
+                + "            dir(\"sources-${index}\") {\n"
+                + "                sleep time: 1, unit: 'MILLISECONDS'\n"
+                + "            }\n"
+                + "            for (int j = 0; j < 10; j++) {\n"
+                + "                echo \"step ${j}\"\n"
+                + "            }\n"
+                + "        }\n"
+                + "    }\n"
+                + "}\n"
+                + "node {\n"
+                + "    parallel branches\n"
+                + "}\n";
+    }
+
+    /**
+     * The previous implementation, walking the whole graph.
+     */
+    private static long walkCheckoutDuration(FlowExecution execution) {
+        long totalCheckoutTime = 0;
+
+        FlowGraphWalker graphWalker = new FlowGraphWalker(execution);
+        FlowNode nextNode = null;
+        for (FlowNode node : graphWalker) {
+            if (node instanceof StepAtomNode stepNode) {
+                StepDescriptor descriptor = stepNode.getDescriptor();
+                if (descriptor != null && descriptor.clazz.equals(GenericSCMStep.class)) {
+                    totalCheckoutTime += (TimingAction.getStartTime(nextNode) - TimingAction.getStartTime(node));
+                }
+            }
+            nextNode = node;
+        }
+
+        return totalCheckoutTime;
+    }
+}
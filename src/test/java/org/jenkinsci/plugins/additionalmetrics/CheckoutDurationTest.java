@@ -0,0 +1,123 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.CHECKOUT;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.GIT;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.SUCCESS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class CheckoutDurationTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void checkout_duration_should_be_remembered_on_completion() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(CHECKOUT)
+                .schedule();
+
+        WorkflowRun run = runner.getRuns()[0];
+        CheckoutDurationAction action = run.getAction(CheckoutDurationAction.class);
+
+        assertThat(action).isNotNull();
+        assertThat(action.getCheckoutDuration()).isGreaterThan(0L);
+        assertEquals(action.getCheckoutDuration(), CheckoutDuration.checkoutDurationOf(run));
+    }
+
+    @Test
+    void remembered_checkout_duration_should_be_used_instead_of_the_flow_graph() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        WorkflowRun run = runner.getRuns()[0];
+        run.addOrReplaceAction(new CheckoutDurationAction(42));
+
+        assertEquals(42, CheckoutDuration.checkoutDurationOf(run));
+    }
+
+    @Test
+    void partial_checkout_duration_should_not_be_remembered() throws Exception {
+        AdditionalMetricsConfiguration configuration = AdditionalMetricsConfiguration.get();
+        int budget = configuration.getCheckoutScanBudget();
+        WorkflowRun run;
+        try {
+            configuration.setCheckoutScanBudget(1);
+            run = JobRunner.createWorkflowJob(jenkinsRule)
+                    .configurePipelineDefinition(CHECKOUT)
+                    .schedule()
+                    .getRuns()[0];
+
+            assertThat(run.getAction(CheckoutDurationAction.class)).isNull();
+        } finally {
+            configuration.setCheckoutScanBudget(budget);
+        }
+
+        assertThat(CheckoutDuration.checkoutDurationOf(run)).isGreaterThan(0L);
+        assertThat(run.getAction(CheckoutDurationAction.class)).isNotNull();
+        // remembered in memory only, reading metrics never saving runs
+        assertThat(Files.readString(new File(run.getRootDir(), "build.xml").toPath()))
+                .doesNotContain(CheckoutDurationAction.class.getName());
+    }
+
+    @Test
+    void partial_checkout_duration_should_be_flagged_in_checkout_columns() throws Exception {
+        AdditionalMetricsConfiguration configuration = AdditionalMetricsConfiguration.get();
+        int budget = configuration.getCheckoutScanBudget();
+        try {
+            configuration.setCheckoutScanBudget(1);
+            var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                    .configurePipelineDefinition(CHECKOUT)
+                    .schedule();
+
+            assertFalse(CheckoutDuration.checkoutScanOf(runner.getRuns()[0]).complete());
+            assertThat(new AvgCheckoutDurationColumn().getPartialNote(runner.getJob())).isNotNull();
+            assertNull(new AvgDurationColumn().getPartialNote(runner.getJob()));
+        } finally {
+            configuration.setCheckoutScanBudget(budget);
+        }
+    }
+
+    @Test
+    void git_step_should_be_timed_as_a_checkout() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(GIT)
+                .schedule();
+
+        assertThat(CheckoutDuration.checkoutDurationOf(runner.getRuns()[0])).isGreaterThan(0L);
+    }
+
+    @Test
+    void configured_steps_with_a_body_should_be_timed_until_their_end() throws Exception {
+        AdditionalMetricsConfiguration configuration = AdditionalMetricsConfiguration.get();
+        WorkflowRun run;
+        try {
+            configuration.setCheckoutStepIds("org.jenkinsci.plugins.workflow.steps.PushdStep");
+            WorkflowJob job = jenkinsRule.createProject(WorkflowJob.class);
+            job.setDefinition(new CpsFlowDefinition("node { dir('sources') { sleep 2 }; sleep 5 }", true));
+            run = jenkinsRule.buildAndAssertSuccess(job);
+        } finally {
+            configuration.setCheckoutStepIds(null);
+        }
+
+        assertThat(CheckoutDuration.checkoutDurationOf(run)).isBetween(2000L, 6999L);
+    }
+}
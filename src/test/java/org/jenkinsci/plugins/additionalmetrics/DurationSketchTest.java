@@ -0,0 +1,79 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DurationSketchTest {
+
+    @Test
+    void empty_sketch_should_have_no_quantile() {
+        DurationSketch sketch = new DurationSketch();
+
+        assertEquals(0, sketch.count());
+        assertThrows(IllegalStateException.class, () -> sketch.quantile(0.5));
+    }
+
+    @Test
+    void non_positive_durations_should_be_ignored() {
+        DurationSketch sketch = sketchOf(0, -5, 100);
+
+        assertEquals(1, sketch.count());
+        assertEquals(100, sketch.quantile(0.5), 1);
+    }
+
+    @Test
+    void quantiles_should_be_within_relative_accuracy() {
+        long[] durations = new Random(42).longs(10_000, 1, 3_600_000).toArray();
+        DurationSketch sketch = sketchOf(durations);
+        Arrays.sort(durations);
+
+        for (double quantile : new double[] {0, 0.5, 0.9, 0.95, 0.99, 1}) {
+            long expected = durations[Math.max(0, (int) Math.ceil(quantile * durations.length) - 1)];
+            assertEquals(expected, sketch.quantile(quantile), expected * 0.01 + 1, "quantile " + quantile);
+        }
+    }
+
+    @Test
+    void merged_sketches_should_match_sequential_sketch() {
+        DurationSketch merged = sketchOf(1_000, 50, 70_000);
+        merged.addAll(sketchOf(3, 900_000, 1_200));
+        merged.addAll(new DurationSketch());
+
+        DurationSketch sequential = sketchOf(1_000, 50, 70_000, 3, 900_000, 1_200);
+
+        assertEquals(sequential.count(), merged.count());
+        for (double quantile : new double[] {0, 0.25, 0.5, 0.75, 1}) {
+            assertEquals(sequential.quantile(quantile), merged.quantile(quantile));
+        }
+    }
+
+    @Test
+    void removed_durations_should_no_longer_be_accounted_for() {
+        DurationSketch sketch = sketchOf(100, 200, 300, 1_000_000);
+        sketch.remove(1_000_000);
+
+        assertEquals(3, sketch.count());
+        assertEquals(300, sketch.quantile(1), 3);
+        assertEquals(200, sketch.quantile(0.5), 2);
+    }
+
+    @Test
+    void memory_should_be_bounded_by_the_range_of_durations() {
+        DurationSketch sketch = sketchOf(new Random(42).longs(100_000, 1_000, 3_600_000).toArray());
+
+        // ln(3600) / ln(1.01 / 0.99) buckets
+        assertEquals(100_000, sketch.count());
+        assertTrue(sketch.buckets() <= 420, "buckets: " + sketch.buckets());
+    }
+
+    private static DurationSketch sketchOf(long... durations) {
+        DurationSketch sketch = new DurationSketch();
+        for (long duration : durations) {
+            sketch.add(duration);
+        }
+        return sketch;
+    }
+}
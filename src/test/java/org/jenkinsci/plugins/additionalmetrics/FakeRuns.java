@@ -0,0 +1,105 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Lightweight runs with synthetic results and durations, to exercise the aggregations without a Jenkins instance.
+ */
+class FakeRuns {
+
+    private static final long MINUTE = 60_000;
+
+    private FakeRuns() {
+        // utility class
+    }
+
+    /**
+     * Generates a history of runs, newest first, as returned by {@code Job#getBuilds()}.
+     * About 70% of the runs succeed, 10% are unstable and 20% fail, the newest one is still building.
+     *
+     * @param size the number of runs
+     * @return the runs
+     */
+    static List<FakeRun> history(int size) {
+        Random random = new Random(42);
+        FakeJob job = new FakeJob();
+
+        List<FakeRun> runs = new ArrayList<>(size);
+        long startTime = System.currentTimeMillis();
+        for (int number = size; number > 0; number--) {
+            startTime -= MINUTE + random.nextInt(60) * MINUTE;
+
+            int outcome = random.nextInt(10);
+            Result result = outcome < 7 ? Result.SUCCESS : outcome < 8 ? Result.UNSTABLE : Result.FAILURE;
+            boolean building = number == size;
+            long duration = building ? 0 : 1 + random.nextInt(30) * MINUTE + random.nextInt(60_000);
+
+            runs.add(new FakeRun(job, number, startTime, building ? null : result, duration));
+        }
+        return runs;
+    }
+
+    static class FakeJob extends Job<FakeJob, FakeRun> {
+
+        FakeJob() {
+            super((ItemGroup) null, "fake");
+        }
+
+        @Override
+        public boolean isBuildable() {
+            return false;
+        }
+
+        @Override
+        protected SortedMap<Integer, ? extends FakeRun> _getRuns() {
+            return new TreeMap<>();
+        }
+
+        @Override
+        protected void removeRun(FakeRun run) {
+            // nothing to remove
+        }
+    }
+
+    static class FakeRun extends Run<FakeJob, FakeRun> {
+
+        private final int number;
+        private final Result result;
+        private final long duration;
+
+        FakeRun(FakeJob job, int number, long startTime, Result result, long duration) {
+            super(job, startTime);
+            this.number = number;
+            this.result = result;
+            this.duration = duration;
+        }
+
+        @Override
+        public int getNumber() {
+            return number;
+        }
+
+        @Override
+        public Result getResult() {
+            return result;
+        }
+
+        @Override
+        public boolean isBuilding() {
+            return result == null;
+        }
+
+        @Override
+        public long getDuration() {
+            return duration;
+        }
+    }
+}
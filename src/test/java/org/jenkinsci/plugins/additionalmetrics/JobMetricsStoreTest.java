@@ -0,0 +1,135 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class JobMetricsStoreTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void completed_runs_should_be_applied_incrementally() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        JobMetricsStore.get().metricsOf(runner.getJob(), true);
+
+        runner.configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(UNSTABLE)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S)
+                .schedule();
+
+        assertSameMetrics(
+                AggregatedMetrics.compute(runner.getJob().getBuilds(), true),
+                JobMetricsStore.get().metricsOf(runner.getJob(), true));
+    }
+
+    @Test
+    void deleted_runs_should_be_applied_incrementally() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S)
+                .schedule()
+                .configurePipelineDefinition(UNSTABLE)
+                .schedule();
+
+        JobMetricsStore.get().metricsOf(runner.getJob(), true);
+
+        // oldest, as log rotation does, then one in the middle
+        runner.getRuns()[0].delete();
+        runner.getRuns()[2].delete();
+
+        assertSameMetrics(
+                AggregatedMetrics.compute(runner.getJob().getBuilds(), true),
+                JobMetricsStore.get().metricsOf(runner.getJob(), true));
+    }
+
+    @Test
+    void checkout_durations_should_only_be_aggregated_once_requested() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        assertFalse(JobMetricsStore.get().metricsOf(runner.getJob(), false).hasCheckoutDurations());
+        assertTrue(JobMetricsStore.get().metricsOf(runner.getJob(), true).hasCheckoutDurations());
+
+        runner.configurePipelineDefinition(FAILURE).schedule();
+
+        // kept up to date, and still served to requests not needing them
+        assertTrue(JobMetricsStore.get().metricsOf(runner.getJob(), false).hasCheckoutDurations());
+        assertSameMetrics(
+                AggregatedMetrics.compute(runner.getJob().getBuilds(), true),
+                JobMetricsStore.get().metricsOf(runner.getJob(), true));
+    }
+
+    @Test
+    void run_budget_should_still_apply_once_runs_complete() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .schedule();
+
+        AdditionalMetricsConfiguration.get().setRunBudget(2);
+        try {
+            JobMetricsStore.get().metricsOf(runner.getJob(), false);
+            for (int i = 0; i < 100 && !BuildIndex.get().isIndexed(runner.getJob()); i++) {
+                Thread.sleep(100);
+            }
+            JobMetricsStore.get().metricsOf(runner.getJob(), false);
+
+            runner.configurePipelineDefinition(FAILURE).schedule();
+
+            AggregatedMetrics metrics = JobMetricsStore.get().metricsOf(runner.getJob(), false);
+            assertTrue(metrics.isPartial());
+            assertEquals(2, metrics.completedRuns());
+            assertEquals(Optional.of(new Rate(0.5)), metrics.successRate());
+        } finally {
+            AdditionalMetricsConfiguration.get().setRunBudget(0);
+        }
+    }
+
+    private static void assertSameMetrics(AggregatedMetrics expected, AggregatedMetrics actual) {
+        assertEquals(expected.successRate(), actual.successRate());
+        assertEquals(expected.failureRate(), actual.failureRate());
+        assertEquals(expected.unstableRate(), actual.unstableRate());
+        assertEquals(
+                expected.successTimeRate().orElseThrow().getAsDouble(),
+                actual.successTimeRate().orElseThrow().getAsDouble(),
+                0.01);
+        assertEquals(
+                expected.failureTimeRate().orElseThrow().getAsDouble(),
+                actual.failureTimeRate().orElseThrow().getAsDouble(),
+                0.01);
+        assertSameDurations(expected.completedDurations(), actual.completedDurations());
+        assertSameDurations(expected.successDurations(), actual.successDurations());
+        assertSameDurations(expected.checkoutDurations(), actual.checkoutDurations());
+    }
+
+    private static void assertSameDurations(DurationSummary expected, DurationSummary actual) {
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.average(), actual.average());
+        assertEquals(expected.standardDeviation(), actual.standardDeviation());
+        assertEquals(expected.shortest(), actual.shortest());
+        assertEquals(expected.longest(), actual.longest());
+    }
+}
@@ -15,6 +15,7 @@ import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
 import org.jvnet.hudson.test.SleepBuilder;
 
 class JobRunner {
@@ -26,7 +27,11 @@ class JobRunner {
     }
 
     static WorkflowBuilder createWorkflowJob(JenkinsRule jenkinsRule) throws IOException {
-        return new WorkflowBuilder(jenkinsRule);
+        return new WorkflowBuilder(jenkinsRule.createProject(WorkflowJob.class, randomProjectName()));
+    }
+
+    static WorkflowBuilder createWorkflowJob(MockFolder folder) throws IOException {
+        return new WorkflowBuilder(folder.createProject(WorkflowJob.class, randomProjectName()));
     }
 
     private static String randomProjectName() {
@@ -44,8 +49,8 @@ class JobRunner {
         private final WorkflowJob project;
         private final List<WorkflowRun> runs;
 
-        WorkflowBuilder(JenkinsRule jenkinsRule) throws IOException {
-            this.project = jenkinsRule.createProject(WorkflowJob.class, randomProjectName());
+        WorkflowBuilder(WorkflowJob project) {
+            this.project = project;
             this.runs = new ArrayList<>();
         }
 
@@ -86,6 +91,7 @@ class JobRunner {
             CHECKOUT(
                     "checkout([$class: 'GitSCM', branches: [[name: '*/master']], doGenerateSubmoduleConfigurations: false, extensions: [], submoduleCfg: [], userRemoteConfigs: [[url: '"
                             + SCM_URL + "']]])"),
+            GIT("git '" + SCM_URL + "'"),
             VERY_SLOW_60S("sleep 60");
 
             private final String pipelineCode;
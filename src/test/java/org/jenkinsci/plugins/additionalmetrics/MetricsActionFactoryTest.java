@@ -3,10 +3,14 @@ package org.jenkinsci.plugins.additionalmetrics;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.CHECKOUT;
 import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.SUCCESS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
@@ -35,7 +39,8 @@ class MetricsActionFactoryTest {
 
         try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
             XmlPage xmlPage = webClient.goToXml(
-                    "api/xml?depth=3&xpath=/hudson/job[name='" + runner.getJob().getName() + "']/action/jobMetrics");
+                    "api/xml?tree=jobs[name,actions[jobMetrics[*]]]&xpath=/hudson/job[name='"
+                            + runner.getJob().getName() + "']/action/jobMetrics");
 
             Map<String, String> metrics = childrenAsMap(xmlPage.getDocumentElement());
 
@@ -85,7 +90,8 @@ class MetricsActionFactoryTest {
 
         try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
             XmlPage xmlPage = webClient.goToXml(
-                    "api/xml?depth=3&xpath=/hudson/job[name='" + runner.getJob().getName() + "']/action/jobMetrics");
+                    "api/xml?tree=jobs[name,actions[jobMetrics[*]]]&xpath=/hudson/job[name='"
+                            + runner.getJob().getName() + "']/action/jobMetrics");
 
             Map<String, String> metrics = childrenAsMap(xmlPage.getDocumentElement());
 
@@ -129,7 +135,8 @@ class MetricsActionFactoryTest {
 
         try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
             XmlPage xmlPage = webClient.goToXml(
-                    "api/xml?depth=3&xpath=/hudson/job[name='" + runner.getJob().getName() + "']/action/jobMetrics");
+                    "api/xml?tree=jobs[name,actions[jobMetrics[*]]]&xpath=/hudson/job[name='"
+                            + runner.getJob().getName() + "']/action/jobMetrics");
 
             Map<String, String> metrics = childrenAsMap(xmlPage.getDocumentElement());
 
@@ -145,6 +152,72 @@ class MetricsActionFactoryTest {
         }
     }
 
+    @Test
+    void metrics_should_not_be_exported_by_depth() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo("job/" + runner.getJob().getName() + "/api/json?depth=2", "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+
+            assertFalse(content.contains("jobMetrics"));
+        }
+    }
+
+    @Test
+    void metrics_should_be_exported_by_depth_when_enabled() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AdditionalMetricsConfiguration.get().setExportByDepth(true);
+
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo("job/" + runner.getJob().getName() + "/api/json?depth=2", "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+
+            assertTrue(content.contains("\"avgDuration\""));
+        } finally {
+            AdditionalMetricsConfiguration.get().setExportByDepth(false);
+        }
+    }
+
+    @Test
+    void only_requested_metrics_should_be_computed() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(CHECKOUT)
+                .schedule();
+
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo(
+                            "job/" + runner.getJob().getName() + "/api/json?tree=actions[jobMetrics[avgDuration]]",
+                            "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+
+            assertTrue(content.contains("\"avgDuration\""));
+            assertFalse(content.contains("avgCheckoutDuration"));
+        }
+
+        // checkout durations were not aggregated
+        assertFalse(JobMetricsStore.get().metricsOf(runner.getJob(), false).hasCheckoutDurations());
+    }
+
+    @Test
+    void tree_properties_should_be_matched_exactly() {
+        assertEquals(
+                Set.of("jobs", "name", "actions", "jobMetrics", "*"),
+                MetricsActionFactory.propertiesOf("jobs[name,actions[jobMetrics[*]]]{0,10}"));
+        assertFalse(MetricsActionFactory.propertiesOf("jobs[name,actions[myJobMetricsSummary]]")
+                .contains("jobMetrics"));
+    }
+
     private Matcher<String> isGreaterThan(final Number value) {
         return new TypeSafeMatcher<>() {
             @Override
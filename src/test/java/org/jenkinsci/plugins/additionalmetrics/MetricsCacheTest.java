@@ -0,0 +1,112 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class MetricsCacheTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    private SuccessRateColumn successRateColumn;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void before() {
+        successRateColumn = new SuccessRateColumn();
+        successRateColumn.setMaxBuilds(10);
+        MetricsCache.get().clear();
+    }
+
+    @AfterEach
+    void resetCacheSize() {
+        AdditionalMetricsConfiguration.get().setCacheSize(1000);
+    }
+
+    @Test
+    void second_lookup_should_hit_the_cache() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        long hits = MetricsCache.get().getHits();
+
+        successRateColumn.getSuccessRate(runner.getJob());
+        successRateColumn.getSuccessRate(runner.getJob());
+
+        assertEquals(hits + 1, MetricsCache.get().getHits());
+    }
+
+    @Test
+    void completed_run_should_invalidate_the_cache() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        assertEquals(1.0, successRateColumn.getSuccessRate(runner.getJob()).getAsDouble(), 0);
+
+        runner.configurePipelineDefinition(FAILURE).schedule();
+
+        assertEquals(0.5, successRateColumn.getSuccessRate(runner.getJob()).getAsDouble(), 0);
+    }
+
+    @Test
+    void least_recently_used_entries_should_be_evicted() throws Exception {
+        var first = JobRunner.createWorkflowJob(jenkinsRule);
+        var second = JobRunner.createWorkflowJob(jenkinsRule);
+        AdditionalMetricsConfiguration.get().setCacheSize(1);
+        long evictions = MetricsCache.get().getEvictions();
+
+        successRateColumn.getSuccessRate(first.getJob());
+        successRateColumn.getSuccessRate(second.getJob());
+
+        assertEquals(1, MetricsCache.get().getSize());
+        assertEquals(evictions + 1, MetricsCache.get().getEvictions());
+    }
+
+    @Test
+    void cached_metrics_should_not_be_shared() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        BuildWindow window = new BuildWindow(10, 0);
+
+        AggregatedMetrics computed = metricsOf(runner, window, () -> AggregatedMetrics.empty(false));
+        AggregatedMetrics cached = metricsOf(runner, window, () -> AggregatedMetrics.empty(false));
+
+        assertNotSame(computed, cached);
+        assertNotSame(cached, metricsOf(runner, window, () -> AggregatedMetrics.empty(false)));
+    }
+
+    @Test
+    void metrics_computed_before_an_invalidation_should_not_be_cached() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        BuildWindow window = new BuildWindow(10, 0);
+
+        metricsOf(runner, window, () -> {
+            MetricsCache.get().invalidate(runner.getJob().getFullName());
+            return AggregatedMetrics.empty(false);
+        });
+
+        assertEquals(0, MetricsCache.get().getSize());
+    }
+
+    private static AggregatedMetrics metricsOf(
+            JobRunner.WorkflowBuilder runner, BuildWindow window, Supplier<AggregatedMetrics> computation) {
+        return MetricsCache.get().metricsOf(runner.getJob(), window, false, computation);
+    }
+}
@@ -0,0 +1,101 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.Job;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class MetricsExecutorTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @AfterEach
+    void resetParallelism() {
+        AdditionalMetricsConfiguration.get().setParallelism(2);
+        AdditionalMetricsConfiguration.get().setParallelThreshold(100);
+    }
+
+    @Test
+    void results_should_be_returned_in_order() {
+        List<Supplier<Integer>> computations = List.of(() -> 1, () -> 2, () -> 3, () -> 4);
+
+        assertEquals(List.of(1, 2, 3, 4), MetricsExecutor.get().invokeAll(computations));
+    }
+
+    @Test
+    void small_histories_should_be_computed_sequentially() {
+        AdditionalMetricsConfiguration.get().setParallelThreshold(100);
+
+        assertEquals(1, MetricsExecutor.get().chunksFor(99));
+        assertEquals(3, MetricsExecutor.get().chunksFor(100));
+    }
+
+    @Test
+    void disabled_parallelism_should_compute_sequentially() {
+        AdditionalMetricsConfiguration.get().setParallelism(0);
+
+        assertEquals(1, MetricsExecutor.get().chunksFor(1000));
+        assertEquals(List.of(1, 2), MetricsExecutor.get().invokeAll(List.<Supplier<Integer>>of(() -> 1, () -> 2)));
+    }
+
+    @Test
+    void parallel_metrics_should_match_sequential_metrics() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S)
+                .schedule()
+                .configurePipelineDefinition(UNSTABLE)
+                .schedule()
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        Job<?, ?> job = runner.getJob();
+
+        AdditionalMetricsConfiguration.get().setParallelism(0);
+        AggregatedMetrics sequential = AggregatedMetrics.compute(job.getBuilds(), true);
+
+        AdditionalMetricsConfiguration.get().setParallelism(2);
+        AdditionalMetricsConfiguration.get().setParallelThreshold(2);
+        long tasks = MetricsExecutor.get().getTasks();
+        AggregatedMetrics parallel = AggregatedMetrics.compute(job.getBuilds(), true);
+
+        assertTrue(MetricsExecutor.get().getTasks() > tasks);
+        assertEquals(sequential.successRate(), parallel.successRate());
+        assertEquals(sequential.failureRate(), parallel.failureRate());
+        assertEquals(sequential.unstableRate(), parallel.unstableRate());
+        assertEquals(
+                sequential.successTimeRate().orElseThrow().getAsDouble(),
+                parallel.successTimeRate().orElseThrow().getAsDouble(),
+                0.01);
+        assertSameDurations(sequential.completedDurations(), parallel.completedDurations());
+        assertSameDurations(sequential.successDurations(), parallel.successDurations());
+        assertSameDurations(sequential.checkoutDurations(), parallel.checkoutDurations());
+    }
+
+    private static void assertSameDurations(DurationSummary expected, DurationSummary actual) {
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.average(), actual.average());
+        assertEquals(
+                expected.standardDeviation().map(Duration::getAsLong).orElse(0L),
+                actual.standardDeviation().map(Duration::getAsLong).orElse(0L),
+                1);
+        assertEquals(expected.shortest(), actual.shortest());
+        assertEquals(expected.longest(), actual.longest());
+    }
+}
@@ -0,0 +1,80 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.additionalmetrics.MetricsInstrumentation.Operation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class MetricsInstrumentationTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void columns_and_aggregations_should_be_measured() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .schedule();
+        OperationCost columnsBefore = MetricsInstrumentation.get().costOf(Operation.COLUMN);
+        OperationCost aggregationsBefore = MetricsInstrumentation.get().costOf(Operation.AGGREGATION);
+
+        new AvgDurationColumn().getAverageDuration(runner.getJob());
+
+        OperationCost columns = MetricsInstrumentation.get().costOf(Operation.COLUMN);
+        OperationCost aggregations = MetricsInstrumentation.get().costOf(Operation.AGGREGATION);
+        assertEquals(columnsBefore.getCalls() + 1, columns.getCalls());
+        assertEquals(aggregationsBefore.getCalls() + 1, aggregations.getCalls());
+        assertEquals(aggregationsBefore.getRuns() + 2, aggregations.getRuns());
+        assertThat(MetricsInstrumentation.get().slowestJobs())
+                .anyMatch(cost -> cost.getFullName().equals(runner.getJob().getFullName()) && cost.getRuns() == 2);
+    }
+
+    @Test
+    void checkout_scans_should_count_flow_nodes() throws Exception {
+        OperationCost before = MetricsInstrumentation.get().costOf(Operation.CHECKOUT);
+
+        JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(CHECKOUT)
+                .schedule();
+
+        OperationCost after = MetricsInstrumentation.get().costOf(Operation.CHECKOUT);
+        assertThat(after.getRuns()).isGreaterThan(before.getRuns());
+        assertThat(after.getFlowNodes()).isGreaterThan(before.getFlowNodes());
+    }
+
+    @Test
+    void costs_should_be_exposed_through_the_rest_api() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        new AvgDurationColumn().getAverageDuration(runner.getJob());
+
+        JSONObject costs;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo("manage/additional-metrics-cost/api/json?depth=1", "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+            costs = JSONObject.fromObject(content);
+        }
+
+        JSONArray operations = costs.getJSONArray("operations");
+        assertEquals(Operation.values().length, operations.size());
+        assertEquals("columns", operations.getJSONObject(0).getString("name"));
+        assertThat(operations.getJSONObject(0).getLong("calls")).isPositive();
+        assertThat(costs.getJSONArray("slowestJobs")).isNotEmpty();
+    }
+}
@@ -0,0 +1,122 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.jenkinsci.plugins.additionalmetrics.UIHelpers.createAndAddListView;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.TaskListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class MetricsPrecomputationTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void enableBackgroundComputation() {
+        AdditionalMetricsConfiguration.get().setBackgroundComputation(true);
+        // keeps metrics first displayed from being computed right away
+        AdditionalMetricsConfiguration.get().setParallelism(0);
+    }
+
+    @AfterEach
+    void disableBackgroundComputation() {
+        AdditionalMetricsConfiguration.get().setBackgroundComputation(false);
+        AdditionalMetricsConfiguration.get().setParallelism(2);
+        MetricsPrecomputation.get().execute(TaskListener.NULL);
+    }
+
+    @Test
+    void metrics_should_be_displayed_once_computed_in_background() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AvgDurationColumn column = new AvgDurationColumn();
+
+        assertNull(column.getAverageDuration(runner.getJob()));
+
+        MetricsPrecomputation.get().execute(TaskListener.NULL);
+
+        Duration avgDuration = column.getAverageDuration(runner.getJob());
+        assertNotNull(avgDuration);
+        assertEquals(runner.getRuns()[0].getDuration(), avgDuration.getAsLong());
+    }
+
+    @Test
+    void metrics_not_known_yet_should_be_pending() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AvgDurationColumn column = new AvgDurationColumn();
+
+        assertNull(column.getAverageDuration(runner.getJob()));
+        assertTrue(column.isPending(runner.getJob()));
+
+        MetricsPrecomputation.get().execute(TaskListener.NULL);
+
+        assertFalse(column.isPending(runner.getJob()));
+    }
+
+    @Test
+    void metrics_should_follow_renamed_jobs_and_be_dropped_with_deleted_ones() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AvgDurationColumn column = new AvgDurationColumn();
+        column.getAverageDuration(runner.getJob());
+        MetricsPrecomputation.get().execute(TaskListener.NULL);
+        int size = MetricsPrecomputation.get().size();
+
+        runner.getJob().renameTo(runner.getJob().getName() + "-renamed");
+
+        assertFalse(column.isPending(runner.getJob()));
+        assertEquals(size, MetricsPrecomputation.get().size());
+
+        runner.getJob().delete();
+
+        assertEquals(size - 1, MetricsPrecomputation.get().size());
+    }
+
+    @Test
+    void jobs_of_list_views_should_be_computed_before_being_displayed() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(CHECKOUT)
+                .schedule();
+        MaxCheckoutDurationColumn column = new MaxCheckoutDurationColumn();
+        createAndAddListView(jenkinsRule.getInstance(), "Precomputed", column, runner.getJob());
+
+        MetricsPrecomputation.get().execute(TaskListener.NULL);
+
+        RunWithDuration longestCheckoutRun = column.getLongestCheckoutRun(runner.getJob());
+        assertNotNull(longestCheckoutRun);
+        assertSame(runner.getRuns()[0], longestCheckoutRun.run());
+    }
+
+    @Test
+    void metrics_should_be_forgotten_once_disabled() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        new AvgDurationColumn().getAverageDuration(runner.getJob());
+
+        AdditionalMetricsConfiguration.get().setBackgroundComputation(false);
+        MetricsPrecomputation.get().execute(TaskListener.NULL);
+
+        assertEquals(0, MetricsPrecomputation.get().size());
+    }
+}
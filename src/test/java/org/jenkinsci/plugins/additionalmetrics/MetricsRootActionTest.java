@@ -0,0 +1,246 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.jenkinsci.plugins.additionalmetrics.UIHelpers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.ListView;
+import java.net.URL;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.htmlunit.html.DomNode;
+import org.htmlunit.html.HtmlPage;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class MetricsRootActionTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void only_requested_metrics_should_be_returned() throws Exception {
+        var first = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        var second = JobRunner.createWorkflowJob(jenkinsRule);
+
+        JSONArray jobs = request("jobs=" + first.getJob().getFullName() + "," + second.getJob().getFullName()
+                + "&metrics=successRate,failureRate");
+
+        assertEquals(2, jobs.size());
+
+        JSONObject firstMetrics = jobs.getJSONObject(0).getJSONObject("metrics");
+        assertEquals(first.getJob().getFullName(), jobs.getJSONObject(0).getString("fullName"));
+        assertEquals(2, firstMetrics.size());
+        assertEquals(0.5, firstMetrics.getDouble("successRate"), 0);
+        assertEquals(0.5, firstMetrics.getDouble("failureRate"), 0);
+
+        JSONObject secondMetrics = jobs.getJSONObject(1).getJSONObject("metrics");
+        assertEquals(second.getJob().getFullName(), jobs.getJSONObject(1).getString("fullName"));
+        assertEquals(0.0, secondMetrics.getDouble("successRate"), 0);
+    }
+
+    @Test
+    void folders_should_stand_for_their_jobs() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("folder");
+        WorkflowJob job = folder.createProject(WorkflowJob.class, "job");
+        job.setDefinition(new CpsFlowDefinition("echo 'hello'", true));
+        jenkinsRule.buildAndAssertSuccess(job);
+
+        JSONArray jobs = request("jobs=folder&metrics=successRate");
+
+        assertEquals(1, jobs.size());
+        assertEquals("folder/job", jobs.getJSONObject(0).getString("fullName"));
+        assertEquals(1.0, jobs.getJSONObject(0).getJSONObject("metrics").getDouble("successRate"), 0);
+    }
+
+    @Test
+    void unknown_jobs_should_be_reported() throws Exception {
+        JSONArray jobs = request("jobs=does-not-exist");
+
+        assertEquals(1, jobs.size());
+        assertEquals("not found", jobs.getJSONObject(0).getString("error"));
+        assertFalse(jobs.getJSONObject(0).has("metrics"));
+    }
+
+    @Test
+    void unknown_metrics_should_be_rejected() throws Exception {
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            webClient.assertFails("additional-metrics/jobs?metrics=doesNotExist", 400);
+        }
+    }
+
+    @Test
+    void partial_metrics_should_be_reported() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        String fullName = runner.getJob().getFullName();
+
+        JSONArray jobs;
+        JSONArray cells;
+        AdditionalMetricsConfiguration.get().setRunBudget(1);
+        try {
+            jobs = request("jobs=" + fullName + "&metrics=successRate");
+            cells = requestCells(cell(fullName, SuccessRateColumn.class));
+        } finally {
+            AdditionalMetricsConfiguration.get().setRunBudget(0);
+        }
+
+        JSONObject job = jobs.getJSONObject(0);
+        assertTrue(job.getBoolean("partial"));
+        assertEquals("runs", job.getString("exceededBudget"));
+        assertEquals(1, job.getInt("partialRuns"));
+        assertEquals(0.0, job.getJSONObject("metrics").getDouble("successRate"), 0);
+        assertEquals("0.00%", cells.getJSONObject(0).getString("text"));
+        assertTrue(cells.getJSONObject(0).getString("partial").contains("1"));
+    }
+
+    @Test
+    void cells_should_be_returned_in_order() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        String fullName = runner.getJob().getFullName();
+
+        JSONArray cells = requestCells(
+                cell(fullName, SuccessRateColumn.class),
+                cell(fullName, MaxDurationColumn.class),
+                cell("does-not-exist", SuccessRateColumn.class));
+
+        assertEquals(3, cells.size());
+
+        assertEquals("50.00%", cells.getJSONObject(0).getString("text"));
+        assertEquals(0.5, cells.getJSONObject(0).getDouble("data"), 0);
+
+        RunWithDuration longestRun = new MaxDurationColumn().getLongestRun(runner.getJob());
+        assertEquals(longestRun.duration().getAsLong(), cells.getJSONObject(1).getLong("data"));
+        assertEquals(longestRun.run().getUrl(), cells.getJSONObject(1).getJSONObject("build").getString("url"));
+
+        assertFalse(cells.getJSONObject(2).has("text"));
+    }
+
+    @Test
+    void progressive_cells_should_be_filled_once_the_page_is_loaded() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        SuccessRateColumn successRateColumn = new SuccessRateColumn();
+        ListView listView =
+                createAndAddListView(jenkinsRule.getInstance(), "Progressive", successRateColumn, runner.getJob());
+
+        AdditionalMetricsConfiguration.get().setProgressiveRendering(true);
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            HtmlPage page = webClient.getPage(listView);
+            webClient.waitForBackgroundJavaScript(10_000);
+
+            DomNode columnNode =
+                    getListViewCell(page, listView, runner.getJob().getName(), successRateColumn.getColumnCaption());
+
+            assertEquals("100.00%", columnNode.asNormalizedText());
+            assertEquals(1.0, Double.parseDouble(dataOf(columnNode)), 0);
+        } finally {
+            AdditionalMetricsConfiguration.get().setProgressiveRendering(false);
+        }
+    }
+
+    @Test
+    void trends_should_return_the_most_recent_buckets() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        JSONObject trends;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo(
+                            "additional-metrics/trends?job=" + runner.getJob().getFullName() + "&buckets=30",
+                            "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+            trends = JSONObject.fromObject(content);
+        }
+
+        assertEquals(runner.getJob().getFullName(), trends.getString("fullName"));
+        assertEquals("day", trends.getString("granularity"));
+        JSONArray buckets = trends.getJSONArray("buckets");
+        assertEquals(30, buckets.size());
+        assertFalse(buckets.getJSONObject(0).has("successRate"));
+
+        // the runs may straddle midnight
+        int builds = 0;
+        for (int i = 28; i < 30; i++) {
+            JSONObject bucket = buckets.getJSONObject(i);
+            builds += bucket.getInt("builds");
+            assertTrue(bucket.getInt("builds") == 0 || bucket.getLong("avgDuration") > 0);
+        }
+        assertEquals(2, builds);
+    }
+
+    @Test
+    void unknown_granularities_should_be_rejected() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule);
+
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            webClient.assertFails(
+                    "additional-metrics/trends?job=" + runner.getJob().getFullName() + "&granularity=month", 400);
+            webClient.assertFails("additional-metrics/trends?job=does-not-exist", 404);
+        }
+    }
+
+    private static JSONObject cell(String item, Class<? extends AdditionalMetricColumn> column) {
+        JSONObject cell = new JSONObject();
+        cell.put("item", item);
+        cell.put("column", column.getName());
+        cell.put("maxBuilds", 0);
+        cell.put("maxDays", 0);
+        return cell;
+    }
+
+    private static JSONArray requestCells(JSONObject... cells) throws Exception {
+        JSONObject body = new JSONObject();
+        body.put("cells", JSONArray.fromObject(cells));
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            WebRequest request =
+                    new WebRequest(new URL(jenkinsRule.getURL(), "additional-metrics/cells"), HttpMethod.POST);
+            request.setAdditionalHeader("Content-Type", "application/json");
+            request.setRequestBody(body.toString());
+            webClient.addCrumb(request);
+            String content = webClient.getPage(request).getWebResponse().getContentAsString();
+            return JSONObject.fromObject(content).getJSONArray("cells");
+        }
+    }
+
+    private static JSONArray request(String query) throws Exception {
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo("additional-metrics/jobs?" + query, "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+            return JSONObject.fromObject(content).getJSONArray("jobs");
+        }
+    }
+}
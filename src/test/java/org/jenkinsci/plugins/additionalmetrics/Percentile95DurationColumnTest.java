@@ -0,0 +1,86 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.jenkinsci.plugins.additionalmetrics.UIHelpers.*;
+import static org.jenkinsci.plugins.additionalmetrics.Utilities.TIME_UNITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.ListView;
+import org.htmlunit.html.DomNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class Percentile95DurationColumnTest {
+
+    private Percentile95DurationColumn percentile95DurationColumn;
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void before() {
+        percentile95DurationColumn = new Percentile95DurationColumn();
+    }
+
+    @Test
+    void three_runs_should_return_their_p95_duration() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S, SLOW_3S)
+                .schedule();
+
+        Duration duration = percentile95DurationColumn.getPercentile95Duration(runner.getJob());
+
+        long expected = runner.getRuns()[2].getDuration();
+        assertEquals(expected, duration.getAsLong(), expected * 0.01 + 1);
+    }
+
+    @Test
+    void failed_runs_are_not_excluded() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        Duration duration = percentile95DurationColumn.getPercentile95Duration(runner.getJob());
+
+        long expected = runner.getRuns()[0].getDuration();
+        assertEquals(expected, duration.getAsLong(), expected * 0.01 + 1);
+    }
+
+    @Test
+    void one_run_should_display_p95_duration_in_UI() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        ListView listView = createAndAddListView(
+                jenkinsRule.getInstance(), "MyListOneRun", percentile95DurationColumn, runner.getJob());
+
+        DomNode columnNode;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    runner.getJob().getName(),
+                    percentile95DurationColumn.getColumnCaption());
+        }
+
+        // sample output: 1.1 sec
+        String text = columnNode.asNormalizedText();
+
+        assertThat(text).containsAnyOf(TIME_UNITS);
+        assertThat(Long.parseLong(dataOf(columnNode))).isGreaterThan(0L);
+    }
+}
@@ -0,0 +1,114 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+
+import hudson.model.TaskListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class PrometheusExporterTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @AfterEach
+    void resetConfiguration() {
+        AdditionalMetricsConfiguration.get().setPrometheusByFolder(false);
+        AdditionalMetricsConfiguration.get().setPrometheusIncludes(null);
+        AdditionalMetricsConfiguration.get().setPrometheusExcludes(null);
+    }
+
+    @Test
+    void metrics_should_be_exposed_once_rendered() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        String label = "{jenkins_job=\"" + runner.getJob().getFullName() + "\"}";
+
+        scrape();
+        PrometheusExporter.get().execute(TaskListener.NULL);
+        String exposition = scrape();
+
+        assertThat(exposition)
+                .contains("# TYPE additional_metrics_success_rate gauge\n")
+                .contains("additional_metrics_builds" + label + " 2.0\n")
+                .contains("additional_metrics_success_rate" + label + " 0.5\n")
+                .contains("additional_metrics_failure_rate" + label + " 0.5\n")
+                .contains("# TYPE additional_metrics_build_duration_seconds summary\n")
+                .contains("additional_metrics_build_duration_seconds_count" + label + " 2.0\n")
+                .contains("additional_metrics_build_duration_seconds_sum" + label + " "
+                        + (runner.getRuns()[0].getDuration() + runner.getRuns()[1].getDuration()) / 1000.0 + "\n")
+                .contains("additional_metrics_build_duration_seconds{jenkins_job=\""
+                        + runner.getJob().getFullName() + "\",quantile=\"0.9\"}")
+                .contains("additional_metrics_checkout_duration_seconds_count" + label);
+    }
+
+    @Test
+    void jobs_of_a_folder_should_be_pooled_when_labeled_by_folder() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("pooled");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AdditionalMetricsConfiguration.get().setPrometheusByFolder(true);
+
+        scrape();
+        PrometheusExporter.get().execute(TaskListener.NULL);
+        String exposition = scrape();
+
+        assertThat(exposition)
+                .contains("additional_metrics_builds{jenkins_folder=\"pooled\"} 2.0\n")
+                .contains("additional_metrics_success_rate{jenkins_folder=\"pooled\"} 0.5\n")
+                .contains("additional_metrics_builds{jenkins_folder=\"/\"}")
+                .doesNotContain("jenkins_folder=\"\"")
+                .doesNotContain("jenkins_job=");
+    }
+
+    @Test
+    void excluded_jobs_should_not_be_exposed() throws Exception {
+        MockFolder included = jenkinsRule.createFolder("included");
+        MockFolder excluded = jenkinsRule.createFolder("excluded");
+        var includedRunner = JobRunner.createWorkflowJob(included)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        var excludedRunner = JobRunner.createWorkflowJob(excluded)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AdditionalMetricsConfiguration.get().setPrometheusIncludes("(in|ex)cluded/.*");
+        AdditionalMetricsConfiguration.get().setPrometheusExcludes("excluded/.*");
+
+        scrape();
+        PrometheusExporter.get().execute(TaskListener.NULL);
+        String exposition = scrape();
+
+        assertThat(exposition)
+                .contains("\"" + includedRunner.getJob().getFullName() + "\"")
+                .doesNotContain("\"" + excludedRunner.getJob().getFullName() + "\"");
+    }
+
+    private static String scrape() throws Exception {
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            return webClient
+                    .goTo("additional-metrics/prometheus", "text/plain")
+                    .getWebResponse()
+                    .getContentAsString();
+        }
+    }
+}
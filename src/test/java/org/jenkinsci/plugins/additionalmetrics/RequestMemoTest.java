@@ -0,0 +1,85 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class RequestMemoTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void columns_should_share_metrics_within_a_request() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AvgDurationColumn avgDurationColumn = new AvgDurationColumn();
+        MaxDurationColumn maxDurationColumn = new MaxDurationColumn();
+
+        RequestMemo memo = new RequestMemo();
+        AggregatedMetrics first = RequestMemo.supplyWith(memo, () -> avgDurationColumn.metricsOf(runner.getJob()));
+        AggregatedMetrics second = RequestMemo.supplyWith(memo, () -> maxDurationColumn.metricsOf(runner.getJob()));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void metrics_with_checkout_should_be_shared_with_columns_without_checkout() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(CHECKOUT)
+                .schedule();
+        AvgDurationColumn avgDurationColumn = new AvgDurationColumn();
+        AvgCheckoutDurationColumn avgCheckoutDurationColumn = new AvgCheckoutDurationColumn();
+
+        RequestMemo memo = new RequestMemo();
+        AggregatedMetrics withCheckout = RequestMemo.supplyWith(
+                memo, () -> avgCheckoutDurationColumn.metricsWithCheckoutOf(runner.getJob()));
+        AggregatedMetrics withoutCheckout =
+                RequestMemo.supplyWith(memo, () -> avgDurationColumn.metricsOf(runner.getJob()));
+
+        assertSame(withCheckout, withoutCheckout);
+    }
+
+    @Test
+    void tasks_should_share_metrics_of_their_request() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AvgDurationColumn avgDurationColumn = new AvgDurationColumn();
+
+        RequestMemo memo = new RequestMemo();
+        AggregatedMetrics computed = RequestMemo.supplyWith(memo, () -> avgDurationColumn.metricsOf(runner.getJob()));
+        List<AggregatedMetrics> fromTasks = RequestMemo.supplyWith(
+                memo,
+                () -> MetricsExecutor.get()
+                        .invokeAll(List.<Supplier<AggregatedMetrics>>of(
+                                () -> avgDurationColumn.metricsOf(runner.getJob()),
+                                () -> avgDurationColumn.metricsOf(runner.getJob()))));
+
+        assertSame(computed, fromTasks.get(0));
+        assertSame(computed, fromTasks.get(1));
+    }
+
+    @Test
+    void metrics_should_not_be_shared_outside_of_requests() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        AvgDurationColumn avgDurationColumn = new AvgDurationColumn();
+
+        assertNotSame(avgDurationColumn.metricsOf(runner.getJob()), avgDurationColumn.metricsOf(runner.getJob()));
+    }
+}
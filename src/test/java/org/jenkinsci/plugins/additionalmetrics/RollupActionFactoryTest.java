@@ -0,0 +1,97 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import hudson.model.ListView;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class RollupActionFactoryTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void folder_rollup_should_be_exported_with_its_actions() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("exported");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+        JobRunner.createWorkflowJob(folder);
+
+        JSONObject content = request("job/exported/api/json?tree=actions[rollupMetrics[jobs,builds,successRate]]");
+
+        JSONObject rollupMetrics = null;
+        JSONArray actions = content.getJSONArray("actions");
+        for (int i = 0; i < actions.size(); i++) {
+            if (actions.getJSONObject(i).has("rollupMetrics")) {
+                rollupMetrics = actions.getJSONObject(i).getJSONObject("rollupMetrics");
+            }
+        }
+
+        assertNotNull(rollupMetrics);
+        assertEquals(3, rollupMetrics.getInt("jobs"));
+        assertEquals(2, rollupMetrics.getInt("builds"));
+        assertEquals(0.5, rollupMetrics.getDouble("successRate"), 0);
+    }
+
+    @Test
+    void view_rollup_should_be_exported() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        ListView listView = new ListView("rollup", jenkinsRule.getInstance());
+        listView.add(runner.getJob());
+        jenkinsRule.getInstance().addView(listView);
+
+        JSONObject content = request("view/rollup/rollup/api/json?tree=rollupMetrics[jobs,successRate,avgDuration]");
+
+        JSONObject rollupMetrics = content.getJSONObject("rollupMetrics");
+        assertEquals(1, rollupMetrics.getInt("jobs"));
+        assertEquals(1.0, rollupMetrics.getDouble("successRate"), 0);
+        assertEquals(runner.getRuns()[0].getDuration(), rollupMetrics.getLong("avgDuration"));
+    }
+
+    @Test
+    void rollup_should_not_be_exported_by_depth() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("depth");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo("job/depth/api/json?depth=2", "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+
+            assertFalse(content.contains("rollupMetrics"));
+        }
+    }
+
+    private static JSONObject request(String path) throws Exception {
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            String content = webClient
+                    .goTo(path, "application/json")
+                    .getWebResponse()
+                    .getContentAsString();
+            return JSONObject.fromObject(content);
+        }
+    }
+}
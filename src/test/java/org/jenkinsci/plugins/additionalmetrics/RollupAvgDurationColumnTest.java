@@ -0,0 +1,94 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.jenkinsci.plugins.additionalmetrics.UIHelpers.*;
+import static org.jenkinsci.plugins.additionalmetrics.Utilities.TIME_UNITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.ListView;
+import org.htmlunit.html.DomNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class RollupAvgDurationColumnTest {
+
+    private RollupAvgDurationColumn rollupAvgDurationColumn;
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void before() {
+        rollupAvgDurationColumn = new RollupAvgDurationColumn();
+    }
+
+    @Test
+    void runs_of_all_jobs_should_be_averaged_together() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("averaged");
+        var runner1 = JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        var runner2 = JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SLOW_3S)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S, FAILURE)
+                .schedule();
+
+        Duration avgDuration = rollupAvgDurationColumn.getAverageDuration(folder);
+
+        long total = runner1.getRuns()[0].getDuration()
+                + runner2.getRuns()[0].getDuration()
+                + runner2.getRuns()[1].getDuration();
+        assertEquals(total / 3.0, avgDuration.getAsLong(), 1);
+    }
+
+    @Test
+    void job_should_return_its_own_average_duration() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S)
+                .schedule();
+
+        Duration avgDuration = rollupAvgDurationColumn.getAverageDuration(runner.getJob());
+
+        assertEquals(
+                (runner.getRuns()[0].getDuration() + runner.getRuns()[1].getDuration()) / 2, avgDuration.getAsLong());
+    }
+
+    @Test
+    void folder_should_display_average_duration_in_UI() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("displayed");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        ListView listView =
+                createAndAddListView(jenkinsRule.getInstance(), "MyListFolder", rollupAvgDurationColumn, folder);
+
+        DomNode columnNode;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    folder.getName(),
+                    rollupAvgDurationColumn.getColumnCaption());
+        }
+
+        // sample output: 1.1 sec
+        String text = columnNode.asNormalizedText();
+
+        assertThat(text).containsAnyOf(TIME_UNITS);
+        assertThat(Long.parseLong(dataOf(columnNode))).isGreaterThan(0L);
+    }
+}
@@ -0,0 +1,55 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class RollupPercentile90DurationColumnTest {
+
+    private RollupPercentile90DurationColumn rollupPercentile90DurationColumn;
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void before() {
+        rollupPercentile90DurationColumn = new RollupPercentile90DurationColumn();
+    }
+
+    @Test
+    void sketches_of_all_jobs_should_be_merged() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("merged");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        var runner = JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SLOW_3S)
+                .schedule()
+                .configurePipelineDefinition(SLOW_3S, SLOW_3S)
+                .schedule();
+
+        Duration duration = rollupPercentile90DurationColumn.getPercentile90Duration(folder);
+
+        long expected = runner.getRuns()[1].getDuration();
+        assertEquals(expected, duration.getAsLong(), expected * 0.01 + 1);
+    }
+
+    @Test
+    void empty_folder_should_return_no_data() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("empty");
+
+        assertNull(rollupPercentile90DurationColumn.getPercentile90Duration(folder));
+    }
+}
@@ -0,0 +1,100 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.jenkinsci.plugins.additionalmetrics.UIHelpers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import hudson.model.ListView;
+import org.htmlunit.html.DomNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class RollupSuccessRateColumnTest {
+
+    private RollupSuccessRateColumn rollupSuccessRateColumn;
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void before() {
+        rollupSuccessRateColumn = new RollupSuccessRateColumn();
+    }
+
+    @Test
+    void runs_of_all_jobs_should_be_pooled() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("pooled");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        Rate successRate = rollupSuccessRateColumn.getSuccessRate(folder);
+
+        assertEquals(2.0 / 3, successRate.getAsDouble(), 0);
+    }
+
+    @Test
+    void jobs_of_subfolders_should_be_included() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("parent");
+        MockFolder subfolder = folder.createProject(MockFolder.class, "child");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        JobRunner.createWorkflowJob(subfolder)
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        Rate successRate = rollupSuccessRateColumn.getSuccessRate(folder);
+
+        assertEquals(0.5, successRate.getAsDouble(), 0);
+    }
+
+    @Test
+    void folder_without_runs_should_return_no_data() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("empty");
+        JobRunner.createWorkflowJob(folder);
+
+        assertNull(rollupSuccessRateColumn.getSuccessRate(folder));
+    }
+
+    @Test
+    void folder_should_display_percentage_in_UI() throws Exception {
+        MockFolder folder = jenkinsRule.createFolder("displayed");
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+        JobRunner.createWorkflowJob(folder)
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        ListView listView =
+                createAndAddListView(jenkinsRule.getInstance(), "MyListFolder", rollupSuccessRateColumn, folder);
+
+        DomNode columnNode;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    folder.getName(),
+                    rollupSuccessRateColumn.getColumnCaption());
+        }
+
+        assertEquals("50.00%", columnNode.asNormalizedText());
+        assertEquals("0.5", dataOf(columnNode));
+    }
+}
@@ -0,0 +1,46 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import hudson.model.Result;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RunHistoryTest {
+
+    private final MetricsExecutor executor = new MetricsExecutor(() -> 0, () -> 100);
+
+    @Test
+    void completed_runs_should_be_read_newest_first() {
+        List<FakeRuns.FakeRun> runs = FakeRuns.history(100);
+
+        RunHistory history = RunHistory.of(runs, false, executor);
+
+        // the newest run is still building
+        assertEquals(99, history.size());
+        assertSame(runs.get(0).getParent(), history.job());
+        for (int i = 0; i < history.size(); i++) {
+            FakeRuns.FakeRun run = runs.get(i + 1);
+            assertEquals(run.getNumber(), history.number(i));
+            assertEquals(run.getStartTimeInMillis(), history.startTime(i));
+            assertEquals(run.getDuration(), history.duration(i));
+            assertEquals(run.getResult() == Result.SUCCESS, history.isSuccess(i));
+            assertEquals(run.getResult() == Result.UNSTABLE, history.isUnstable(i));
+        }
+    }
+
+    @Test
+    void checkout_durations_should_not_be_read_unless_requested() {
+        RunHistory history = RunHistory.of(FakeRuns.history(10), false, executor);
+
+        assertFalse(history.hasCheckoutDurations());
+    }
+
+    @Test
+    void no_runs_should_have_no_job() {
+        RunHistory history = RunHistory.of(List.of(), true, executor);
+
+        assertEquals(0, history.size());
+        assertNull(history.job());
+    }
+}
@@ -0,0 +1,78 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class RunningStatsTest {
+
+    @Test
+    void empty_stats_should_return_0() {
+        RunningStats stats = new RunningStats();
+
+        assertEquals(0, stats.count());
+        assertEquals(0, stats.average());
+        assertEquals(0, stats.standardDeviation());
+    }
+
+    @Test
+    void stats_of_multiple_values() {
+        RunningStats stats = statsOf(100, 200, 300);
+
+        assertEquals(3, stats.count());
+        assertEquals(200, stats.average());
+        assertEquals(81.64965809277261, stats.standardDeviation());
+    }
+
+    @Test
+    void combined_stats_should_match_sequential_stats() {
+        RunningStats combined = statsOf(3, 1, 4, 1);
+        combined.combine(statsOf(5, 9, 2, 6, 5));
+        combined.combine(new RunningStats());
+
+        RunningStats sequential = statsOf(3, 1, 4, 1, 5, 9, 2, 6, 5);
+
+        assertEquals(sequential.count(), combined.count());
+        assertEquals(sequential.average(), combined.average());
+        assertEquals(sequential.standardDeviation(), combined.standardDeviation(), 1e-9);
+    }
+
+    @Test
+    void parallel_collect_should_match_sequential_stats() {
+        RunningStats parallel = LongStream.rangeClosed(1, 10_000)
+                .parallel()
+                .collect(RunningStats::new, RunningStats::accept, RunningStats::combine);
+
+        assertEquals(10_000, parallel.count());
+        assertEquals(
+                MathCommons.standardDeviation(LongStream.rangeClosed(1, 10_000).boxed().toList()),
+                parallel.standardDeviation(),
+                1e-6);
+    }
+
+    @Test
+    void removed_value_should_no_longer_be_accounted_for() {
+        RunningStats stats = statsOf(100, 200, 300, 1000);
+        stats.remove(1000);
+
+        assertEquals(3, stats.count());
+        assertEquals(200, stats.average());
+        assertEquals(81.64965809277261, stats.standardDeviation(), 1e-9);
+
+        stats.remove(100);
+        stats.remove(200);
+        stats.remove(300);
+
+        assertEquals(0, stats.count());
+        assertEquals(0, stats.standardDeviation());
+    }
+
+    private static RunningStats statsOf(long... values) {
+        RunningStats stats = new RunningStats();
+        for (long value : values) {
+            stats.accept(value);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,108 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.jenkinsci.plugins.additionalmetrics.UIHelpers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import hudson.model.ListView;
+import org.htmlunit.html.DomNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class SuccessRateTrendColumnTest {
+
+    private SuccessRateTrendColumn successRateTrendColumn;
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @BeforeEach
+    void before() {
+        successRateTrendColumn = new SuccessRateTrendColumn();
+    }
+
+    @Test
+    void recent_runs_without_previous_ones_should_have_no_delta() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        RateTrend successRateTrend = successRateTrendColumn.getSuccessRateTrend(runner.getJob());
+
+        assertEquals(0.5, successRateTrend.current().getAsDouble(), 0);
+        assertNull(successRateTrend.previous());
+        assertNull(successRateTrend.getDelta());
+    }
+
+    @Test
+    void delta_should_be_in_percentage_points() {
+        RateTrend successRateTrend = new RateTrend(new Rate(0.75), new Rate(0.5));
+
+        assertEquals(25.0, successRateTrend.getDelta(), 0.0001);
+        assertEquals("75.00% (+25.00 pts)", successRateTrend.getAsString());
+    }
+
+    @Test
+    void days_should_be_bounded_by_the_buckets_kept() {
+        successRateTrendColumn.setDays(365);
+
+        assertEquals(TrendColumn.MAX_DAYS, successRateTrendColumn.getDays());
+
+        successRateTrendColumn.setDays(0);
+
+        assertEquals(TrendColumn.DEFAULT_DAYS, successRateTrendColumn.getDays());
+    }
+
+    @Test
+    void no_runs_should_display_as_NA_in_UI() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule);
+
+        ListView listView = createAndAddListView(
+                jenkinsRule.getInstance(), "MyListNoRuns", successRateTrendColumn, runner.getJob());
+
+        DomNode columnNode;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    runner.getJob().getName(),
+                    successRateTrendColumn.getColumnCaption());
+        }
+
+        assertEquals("N/A", columnNode.asNormalizedText());
+        assertEquals("0.0", dataOf(columnNode));
+    }
+
+    @Test
+    void one_run_should_display_percentage_in_UI() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        ListView listView = createAndAddListView(
+                jenkinsRule.getInstance(), "MyListOneRun", successRateTrendColumn, runner.getJob());
+
+        DomNode columnNode;
+        try (JenkinsRule.WebClient webClient = jenkinsRule.createWebClient()) {
+            columnNode = getListViewCell(
+                    webClient.getPage(listView),
+                    listView,
+                    runner.getJob().getName(),
+                    successRateTrendColumn.getColumnCaption());
+        }
+
+        assertEquals("100.00%", columnNode.asNormalizedText());
+        assertEquals(1.0, Double.parseDouble(dataOf(columnNode)), 0);
+    }
+}
@@ -0,0 +1,68 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TrendBucketsTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long NOW = 1_000 * HOUR + HOUR / 2;
+
+    @Test
+    void builds_should_be_aggregated_by_bucket_oldest_first() {
+        TrendBuckets buckets = new TrendBuckets(TrendGranularity.HOUR);
+        buckets.add(NOW, true, 1_000, NOW);
+        buckets.add(NOW - HOUR / 4, false, 3_000, NOW);
+        buckets.add(NOW - HOUR, true, 0, NOW);
+
+        List<TrendBucket> series = buckets.series(3, NOW);
+
+        assertEquals(List.of(998 * HOUR, 999 * HOUR, 1_000 * HOUR), startsOf(series));
+        assertEquals(TrendBucket.empty(998 * HOUR), series.get(0));
+        assertEquals(new TrendBucket(999 * HOUR, 1, 1, 0, 0), series.get(1));
+        assertEquals(new TrendBucket(1_000 * HOUR, 2, 1, 4_000, 2), series.get(2));
+        assertEquals(0.5, series.get(2).successRate().orElseThrow().getAsDouble(), 0);
+        assertEquals(2_000, series.get(2).averageDuration().orElseThrow().getAsLong());
+    }
+
+    @Test
+    void buckets_out_of_range_should_be_overwritten() {
+        TrendBuckets buckets = new TrendBuckets(TrendGranularity.HOUR);
+        int size = TrendGranularity.HOUR.getBuckets();
+        buckets.add(NOW - (size - 1) * HOUR, true, 1_000, NOW);
+
+        long later = NOW + HOUR;
+        buckets.add(later, false, 2_000, later);
+        // older than the oldest bucket kept
+        buckets.add(NOW - size * HOUR, true, 1_000, later);
+
+        List<TrendBucket> series = buckets.series(size, later);
+
+        assertEquals(size, series.size());
+        assertEquals(1, series.stream().mapToInt(TrendBucket::builds).sum());
+        assertEquals(new TrendBucket(1_001 * HOUR, 1, 0, 2_000, 1), series.get(size - 1));
+    }
+
+    @Test
+    void removed_builds_should_no_longer_be_counted() {
+        TrendBuckets buckets = new TrendBuckets(TrendGranularity.DAY);
+        buckets.add(NOW, true, 1_000, NOW);
+        buckets.add(NOW, false, 3_000, NOW);
+
+        buckets.remove(NOW, false, 3_000);
+        // never added
+        buckets.remove(NOW - TimeUnit.DAYS.toMillis(365), true, 1_000);
+
+        TrendBucket current = buckets.series(1, NOW).get(0);
+        assertEquals(1, current.builds());
+        assertEquals(1, current.successBuilds());
+        assertEquals(1_000, current.totalDuration());
+    }
+
+    private static List<Long> startsOf(List<TrendBucket> series) {
+        return series.stream().map(TrendBucket::start).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.JobRunner.WorkflowBuilder.StepDefinitions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class TrendStoreTest {
+
+    private static JenkinsRule jenkinsRule;
+
+    @BeforeAll
+    static void setUp(JenkinsRule rule) {
+        jenkinsRule = rule;
+    }
+
+    @Test
+    void completed_runs_should_be_applied_incrementally() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        TrendStore.get().seriesOf(runner.getJob(), TrendGranularity.DAY, 1);
+
+        runner.configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(UNSTABLE)
+                .schedule();
+
+        assertSameBuckets(runner);
+        assertEquals(3, recentBuildsOf(runner).builds());
+        assertEquals(1, recentBuildsOf(runner).successBuilds());
+    }
+
+    @Test
+    void deleted_runs_should_be_applied_incrementally() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule()
+                .configurePipelineDefinition(SUCCESS)
+                .schedule();
+
+        TrendStore.get().seriesOf(runner.getJob(), TrendGranularity.DAY, 1);
+
+        runner.getRuns()[1].delete();
+
+        assertSameBuckets(runner);
+        assertEquals(2, recentBuildsOf(runner).builds());
+        assertEquals(2, recentBuildsOf(runner).successBuilds());
+    }
+
+    @Test
+    void buckets_should_be_filled_from_the_index() throws Exception {
+        var runner = JobRunner.createWorkflowJob(jenkinsRule)
+                .configurePipelineDefinition(SUCCESS)
+                .schedule()
+                .configurePipelineDefinition(FAILURE)
+                .schedule();
+
+        // indexed in the background on first request
+        for (int i = 0; i < 100 && BuildIndex.get().entriesSince(runner.getJob(), 0).isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        TrendStore filled = new TrendStore();
+
+        assertEquals(2, recentBuildsOf(filled, runner).builds());
+        assertEquals(1, recentBuildsOf(filled, runner).successBuilds());
+    }
+
+    private static TrendBucket recentBuildsOf(JobRunner.WorkflowBuilder runner) {
+        return recentBuildsOf(TrendStore.get(), runner);
+    }
+
+    private static TrendBucket recentBuildsOf(TrendStore store, JobRunner.WorkflowBuilder runner) {
+        // the runs may straddle the start of an hour
+        return store.seriesOf(runner.getJob(), TrendGranularity.HOUR, 2).stream()
+                .reduce(TrendBucket::plus)
+                .orElseThrow();
+    }
+
+    private static void assertSameBuckets(JobRunner.WorkflowBuilder runner) {
+        // not registered as a listener, so filled from scratch
+        TrendStore filled = new TrendStore();
+        for (TrendGranularity granularity : TrendGranularity.values()) {
+            assertEquals(
+                    filled.seriesOf(runner.getJob(), granularity, granularity.getBuckets()),
+                    TrendStore.get().seriesOf(runner.getJob(), granularity, granularity.getBuckets()));
+        }
+    }
+}
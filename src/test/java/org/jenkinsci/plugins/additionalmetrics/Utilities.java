@@ -5,6 +5,7 @@ import com.google.common.reflect.ClassPath;
 import hudson.views.ListViewColumn;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
@@ -24,6 +25,7 @@ class Utilities {
                 .filter(cl -> cl.getPackageName().equals(p.getName()))
                 .map(ClassPath.ClassInfo::load)
                 .filter(ListViewColumn.class::isAssignableFrom)
+                .filter(cl -> !Modifier.isAbstract(cl.getModifiers()))
                 .toList();
     }
 
@@ -2,6 +2,7 @@ package org.jenkinsci.plugins.additionalmetrics;
 
 import com.google.common.collect.Iterables;
 import hudson.model.Run;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalDouble;
@@ -14,6 +15,16 @@ import java.util.stream.Stream;
 
 class Utils {
 
+    static final ToLongFunction<Run> RUN_CHECKOUT_DURATION = CheckoutDuration::checkoutDurationOf;
+
+    static final Predicate<Run> NOT_SUCCESS = Helpers.SUCCESS.negate();
+
+    private static final Comparator<RunWithDuration> DURATION_ORDERING =
+            Comparator.comparing(runWithDuration -> runWithDuration.duration().getAsLong());
+
+    static final BinaryOperator<RunWithDuration> MIN = BinaryOperator.minBy(DURATION_ORDERING);
+    static final BinaryOperator<RunWithDuration> MAX = BinaryOperator.maxBy(DURATION_ORDERING);
+
     private Utils() {
         // utility class
     }
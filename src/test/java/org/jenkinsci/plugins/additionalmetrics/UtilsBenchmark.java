@@ -0,0 +1,54 @@
+package org.jenkinsci.plugins.additionalmetrics;
+
+import static org.jenkinsci.plugins.additionalmetrics.Helpers.*;
+import static org.jenkinsci.plugins.additionalmetrics.Utils.MAX;
+
+import java.util.List;
+import java.util.Optional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the reference implementation of each metric, computed in its own traversal of the runs.
+ */
+@State(Scope.Benchmark)
+public class UtilsBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int runs;
+
+    private List<FakeRuns.FakeRun> history;
+
+    @Setup
+    public void setUp() {
+        history = FakeRuns.history(runs);
+    }
+
+    @Benchmark
+    public Optional<Rate> rateOf() {
+        return Utils.rateOf(history, COMPLETED, SUCCESS);
+    }
+
+    @Benchmark
+    public Optional<Rate> timeRateOf() {
+        return Utils.timeRateOf(history, COMPLETED, SUCCESS);
+    }
+
+    @Benchmark
+    public Optional<RunWithDuration> findRun() {
+        return Utils.findRun(history, COMPLETED, RUN_DURATION, MAX);
+    }
+
+    @Benchmark
+    public Optional<Duration> averageDuration() {
+        return Utils.averageDuration(history, COMPLETED, RUN_DURATION);
+    }
+
+    @Benchmark
+    public Optional<Duration> stdDevDuration() {
+        return Utils.stdDevDuration(history, COMPLETED, RUN_DURATION);
+    }
+}